@@ -0,0 +1,119 @@
+#!/usr/bin/env bash
+# Load test the working tree against a baseline recorded from another commit on this machine.
+#
+# Usage (from backend/):
+#   scripts/loadtest-compare.sh [BASE_REF]
+#
+# This is the load-test step for CI. No baseline is committed, because latency depends on
+# the hardware, so every run records its own baseline first:
+#   1. Seed the Postgres at JDBC_URL with the synthetic catalog.
+#   2. Build BASE_REF (default origin/main) in a git worktree, start it with the loadtest
+#      settings and record target/loadtest/baseline.json with LoadTestRunner --record-baseline.
+#   3. Reseed, build and start the working tree, and compare it against that baseline.
+# Both builds get the working tree's application-loadtest.properties, so the pinned profile is
+# the same on both sides. The exit code is the runner's: 1 on a regression.
+#
+# Start Postgres first, e.g. "docker compose up -d postgres" from the repository root.
+#
+# Environment:
+#   JDBC_URL      default jdbc:postgresql://localhost:5432/productcatalog
+#   DB_USER       default dbuser
+#   DB_PASSWORD   default supersecret
+#   PORT          port the backend listens on (default 8080)
+#   PRODUCTS      generated products (default 100000)
+#   WARMUP        warm-up seconds (default 15)
+#   DURATION      measured seconds (default 120)
+#   CONCURRENCY   runner workers (default 16)
+#   TOLERANCE     allowed relative regression (default 0.25)
+#   MVN           Maven command (default mvn; the wrapper splits -Dloadtest.args at spaces)
+set -euo pipefail
+
+BASE_REF=${1:-origin/main}
+JDBC_URL=${JDBC_URL:-jdbc:postgresql://localhost:5432/productcatalog}
+DB_USER=${DB_USER:-dbuser}
+DB_PASSWORD=${DB_PASSWORD:-supersecret}
+PORT=${PORT:-8080}
+PRODUCTS=${PRODUCTS:-100000}
+WARMUP=${WARMUP:-15}
+DURATION=${DURATION:-120}
+CONCURRENCY=${CONCURRENCY:-16}
+TOLERANCE=${TOLERANCE:-0.25}
+MVN=${MVN:-mvn}
+
+BACKEND=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$BACKEND/target/loadtest"
+WORKTREE="$OUT/base"
+SETTINGS="$BACKEND/src/main/resources/application-loadtest.properties"
+BACKEND_PID=
+
+cleanup() {
+  stop_backend
+  if [[ -d "$WORKTREE" ]]; then
+    git -C "$BACKEND" worktree remove --force "$WORKTREE" || true
+  fi
+}
+trap cleanup EXIT
+
+loadtest() {
+  local main=$1 args=$2
+  "$MVN" -B -q -f "$BACKEND/pom.xml" -Ploadtest test-compile exec:java \
+    -Dloadtest.main="com.productcatalog.loadtest.$main" -Dloadtest.args="$args"
+}
+
+seed() {
+  loadtest SyntheticCatalogGenerator \
+    "--jdbc-url=${JDBC_URL}?reWriteBatchedInserts=true --user=$DB_USER --password=$DB_PASSWORD --products=$PRODUCTS"
+}
+
+start_backend() {
+  local tree=$1 name=$2
+  "$MVN" -B -q -f "$tree/pom.xml" -DskipTests package
+  local jar
+  jar=$(ls "$tree"/target/product-catalog-backend-*.jar | head -n 1)
+  java -jar "$jar" \
+    --spring.config.additional-location="file:$SETTINGS" \
+    --server.port="$PORT" \
+    --spring.datasource.url="$JDBC_URL" \
+    --spring.datasource.username="$DB_USER" \
+    --spring.datasource.password="$DB_PASSWORD" \
+    > "$OUT/$name.log" 2>&1 &
+  BACKEND_PID=$!
+  local started=$SECONDS
+  until curl -sf "http://localhost:${PORT}/actuator/health/readiness" > /dev/null; do
+    if ! kill -0 "$BACKEND_PID" 2>/dev/null; then
+      echo "$name backend exited before becoming ready, see $OUT/$name.log" >&2
+      exit 1
+    fi
+    if (( SECONDS - started > 180 )); then
+      echo "$name backend did not become ready within 180s, see $OUT/$name.log" >&2
+      exit 1
+    fi
+    sleep 1
+  done
+}
+
+stop_backend() {
+  if [[ -n "$BACKEND_PID" ]]; then
+    kill "$BACKEND_PID" 2>/dev/null || true
+    wait "$BACKEND_PID" 2>/dev/null || true
+    BACKEND_PID=
+  fi
+}
+
+run_args="--base-url=http://localhost:${PORT} --products=$PRODUCTS --concurrency=$CONCURRENCY \
+--warmup=$WARMUP --duration=$DURATION --tolerance=$TOLERANCE --baseline=$OUT/baseline.json"
+
+mkdir -p "$OUT"
+rm -f "$OUT/baseline.json"
+git -C "$BACKEND" worktree add --detach "$WORKTREE" "$BASE_REF"
+
+echo "Recording baseline from $BASE_REF"
+seed
+start_backend "$WORKTREE/backend" base
+loadtest LoadTestRunner "$run_args --report=$OUT/base-report.json --record-baseline"
+stop_backend
+
+echo "Comparing working tree against $BASE_REF"
+seed
+start_backend "$BACKEND" candidate
+loadtest LoadTestRunner "$run_args --report=$OUT/report.json"
@@ -0,0 +1,93 @@
+#!/usr/bin/env bash
+# Measure time-to-ready and first-request latency of one or more backend builds.
+#
+# Usage:
+#   scripts/measure-startup.sh [--runs N] TARGET...
+#
+# Each TARGET is either a Docker image (started on the docker-compose network against the
+# compose Postgres) or "local:<command>" to time a command started on this machine.
+#
+#   scripts/measure-startup.sh productcatalog-backend:jar productcatalog-backend:cds productcatalog-backend:native
+#   scripts/measure-startup.sh "local:java -jar target/product-catalog-backend-0.0.1-SNAPSHOT.jar"
+#
+# Environment:
+#   PORT          port the backend listens on (default 8080)
+#   NETWORK       docker network of the compose stack (default productcatalog_productcatalog-network)
+#   PRODUCT_KEY   product fetched by the detail request (default 12952635 from the sample data)
+set -euo pipefail
+
+PORT=${PORT:-8080}
+NETWORK=${NETWORK:-productcatalog_productcatalog-network}
+PRODUCT_KEY=${PRODUCT_KEY:-12952635}
+RUNS=1
+if [[ "${1:-}" == "--runs" ]]; then
+  RUNS=$2
+  shift 2
+fi
+if [[ $# -eq 0 ]]; then
+  sed -n '2,17p' "$0"
+  exit 1
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+request_ms() {
+  curl -s -o /dev/null -w '%{time_total}' "http://localhost:${PORT}$1" | awk '{ printf "%.0f", $1 * 1000 }'
+}
+
+start_target() {
+  local target=$1
+  if [[ "$target" == local:* ]]; then
+    bash -c "exec ${target#local:}" > "/tmp/measure-startup-$$.log" 2>&1 &
+    echo "pid:$!"
+  else
+    docker run -d --rm --network "$NETWORK" -p "${PORT}:8080" \
+      -e SPRING_DATASOURCE_URL=jdbc:postgresql://postgres:5432/productcatalog \
+      -e SPRING_DATASOURCE_USERNAME=dbuser \
+      -e SPRING_DATASOURCE_PASSWORD=supersecret \
+      "$target" | sed 's/^/container:/'
+  fi
+}
+
+stop_target() {
+  local handle=$1
+  if [[ "$handle" == pid:* ]]; then
+    kill "${handle#pid:}" 2>/dev/null || true
+    wait "${handle#pid:}" 2>/dev/null || true
+  else
+    docker rm -f "${handle#container:}" > /dev/null
+  fi
+}
+
+printf '%-50s %4s %10s %10s %10s %10s %8s\n' "target" "run" "ready ms" "count ms" "detail ms" "brands ms" "RSS MB"
+for target in "$@"; do
+  for run in $(seq 1 "$RUNS"); do
+    started=$(now_ms)
+    handle=$(start_target "$target")
+    until curl -sf "http://localhost:${PORT}/actuator/health/readiness" > /dev/null; do
+      if [[ "$handle" == pid:* ]] && ! kill -0 "${handle#pid:}" 2>/dev/null; then
+        echo "${target:0:50} exited before becoming ready, see /tmp/measure-startup-$$.log" >&2
+        exit 1
+      fi
+      if (( $(now_ms) - started > 180000 )); then
+        echo "${target:0:50} did not become ready within 180s" >&2
+        stop_target "$handle"
+        exit 1
+      fi
+      sleep 0.05
+    done
+    ready=$(( $(now_ms) - started ))
+    count=$(request_ms /products/count)
+    detail=$(request_ms "/products/${PRODUCT_KEY}")
+    brands=$(request_ms /products/brand-summary)
+    if [[ "$handle" == pid:* ]]; then
+      rss=$(( $(ps -o rss= -p "${handle#pid:}" | tr -d ' ') / 1024 ))
+    else
+      rss=$(docker stats --no-stream --format '{{.MemUsage}}' "${handle#container:}" | awk '{ print $1 }')
+    fi
+    printf '%-50s %4s %10s %10s %10s %10s %8s\n' "${target:0:50}" "$run" "$ready" "$count" "$detail" "$brands" "$rss"
+    stop_target "$handle"
+  done
+done
@@ -0,0 +1,33 @@
+package com.productcatalog;
+
+import com.productcatalog.dto.ProductChangeDto;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Native-image hints for what Spring AOT cannot see on its own. Entities, repositories and
+ * controller DTOs are registered by AOT processing; ProductChangeDto is only (de)serialized
+ * through the ObjectMapper in ProductChangeBroadcaster, and QueryCountingDataSource creates JDK
+ * proxies of the JDBC connection, statement and result set interfaces at runtime.
+ */
+public class CatalogRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(ProductChangeDto.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.proxies().registerJdkProxy(Connection.class);
+        hints.proxies().registerJdkProxy(Statement.class);
+        hints.proxies().registerJdkProxy(PreparedStatement.class);
+        hints.proxies().registerJdkProxy(CallableStatement.class);
+        hints.proxies().registerJdkProxy(ResultSet.class);
+    }
+}
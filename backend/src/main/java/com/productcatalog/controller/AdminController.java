@@ -0,0 +1,71 @@
+package com.productcatalog.controller;
+
+import com.productcatalog.dto.CatalogJobStatusDto;
+import com.productcatalog.service.CatalogJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/jobs")
+public class AdminController {
+
+    private final CatalogJobService catalogJobService;
+
+    @Autowired
+    public AdminController(CatalogJobService catalogJobService) {
+        this.catalogJobService = catalogJobService;
+    }
+
+    /**
+     * GET /admin/jobs - Status of every catalog job
+     */
+    @GetMapping
+    public ResponseEntity<List<CatalogJobStatusDto>> getJobs() {
+        return ResponseEntity.ok(catalogJobService.getStatuses());
+    }
+
+    /**
+     * GET /admin/jobs/{jobName} - Status and throughput of a catalog job
+     */
+    @GetMapping("/{jobName}")
+    public ResponseEntity<CatalogJobStatusDto> getJob(@PathVariable String jobName) {
+        try {
+            return ResponseEntity.ok(catalogJobService.getStatus(jobName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * POST /admin/jobs/{jobName}?resume={true|false} - Start a catalog job, resuming from its checkpoint by default
+     */
+    @PostMapping("/{jobName}")
+    public ResponseEntity<CatalogJobStatusDto> startJob(@PathVariable String jobName,
+                                                        @RequestParam(defaultValue = "true") boolean resume) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(catalogJobService.start(jobName, resume));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * POST /admin/jobs/{jobName}/cancel - Stop a running catalog job after its in-flight chunks
+     */
+    @PostMapping("/{jobName}/cancel")
+    public ResponseEntity<CatalogJobStatusDto> cancelJob(@PathVariable String jobName) {
+        try {
+            return ResponseEntity.ok(catalogJobService.cancel(jobName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
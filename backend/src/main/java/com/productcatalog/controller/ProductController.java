@@ -1,10 +1,15 @@
 package com.productcatalog.controller;
 
 import com.productcatalog.dto.BrandSummaryDto;
+import com.productcatalog.dto.PriceStatisticsDto;
+import com.productcatalog.dto.PriceUpdateDto;
+import com.productcatalog.dto.PriceUpdateResultDto;
 import com.productcatalog.entity.Product;
+import com.productcatalog.service.PriceUpdateQueue;
 import com.productcatalog.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,10 +23,12 @@ import java.util.Optional;
 public class ProductController {
 
     private final ProductService productService;
+    private final PriceUpdateQueue priceUpdateQueue;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, PriceUpdateQueue priceUpdateQueue) {
         this.productService = productService;
+        this.priceUpdateQueue = priceUpdateQueue;
     }
 
     /**
@@ -71,6 +78,30 @@ public class ProductController {
         }
     }
 
+    /**
+     * PUT /products/prices?ack={queued|flushed} - Bulk price updates through the write-behind queue.
+     * Returns 202 while any update is still queued, 429 if the queue cannot take the whole request
+     * (nothing is queued then)
+     */
+    @PutMapping("/prices")
+    public ResponseEntity<List<PriceUpdateResultDto>> updatePrices(@Valid @RequestBody List<PriceUpdateDto> updates,
+                                                                   @RequestParam(defaultValue = "queued") String ack) {
+        if (!"queued".equals(ack) && !"flushed".equals(ack)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<PriceUpdateResultDto> results = priceUpdateQueue.submit(updates, "flushed".equals(ack));
+
+        if (results.stream().anyMatch(result -> PriceUpdateQueue.STATUS_REJECTED.equals(result.getStatus()))) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(results);
+        }
+        if (results.stream().anyMatch(result -> PriceUpdateQueue.STATUS_QUEUED.equals(result.getStatus()))) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(results);
+        }
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * DELETE /products/{productKey} - Remove a product
      */
@@ -93,6 +124,30 @@ public class ProductController {
         return ResponseEntity.ok(brandSummary);
     }
 
+    /**
+     * GET /products/price-statistics?groupBy={brand|retailer|brand-retailer}&buckets={n} - Price statistics
+     * and histogram per group
+     */
+    @GetMapping("/price-statistics")
+    public ResponseEntity<List<PriceStatisticsDto>> getPriceStatistics(
+            @RequestParam(defaultValue = "brand") String groupBy,
+            @RequestParam(defaultValue = "10") int buckets) {
+        try {
+            return ResponseEntity.ok(productService.getPriceStatistics(groupBy, buckets));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * POST /products/price-statistics/recompute?parallel={true|false} - Rebuild price statistics from the catalog
+     */
+    @PostMapping("/price-statistics/recompute")
+    public ResponseEntity<Long> recomputePriceStatistics(@RequestParam(defaultValue = "true") boolean parallel) {
+        long products = productService.recomputePriceStatistics(parallel);
+        return ResponseEntity.ok(products);
+    }
+
     /**
      * GET /products/search?name={name} - Search products by name
      */
@@ -113,11 +168,13 @@ public class ProductController {
     }
 
     /**
-     * GET /products/count - Get total product count
+     * GET /products/count?approximate={true|false} - Get total product count
      */
     @GetMapping("/count")
-    public ResponseEntity<Long> getProductCount() {
-        long count = productService.getTotalProductCount();
+    public ResponseEntity<Long> getProductCount(@RequestParam(defaultValue = "false") boolean approximate) {
+        long count = approximate
+                ? productService.getApproximateProductCount()
+                : productService.getTotalProductCount();
         return ResponseEntity.ok(count);
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.productcatalog.dto;
+
+import java.time.Instant;
+
+public class CatalogJobStatusDto {
+    private String jobName;
+    private String state;
+    private Long rowsProcessed;
+    private Long issuesFound;
+    private Long chunksCompleted;
+    private Long lastProductKey;
+    private Double rowsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    public CatalogJobStatusDto() {}
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public void setRowsProcessed(Long rowsProcessed) {
+        this.rowsProcessed = rowsProcessed;
+    }
+
+    public Long getIssuesFound() {
+        return issuesFound;
+    }
+
+    public void setIssuesFound(Long issuesFound) {
+        this.issuesFound = issuesFound;
+    }
+
+    public Long getChunksCompleted() {
+        return chunksCompleted;
+    }
+
+    public void setChunksCompleted(Long chunksCompleted) {
+        this.chunksCompleted = chunksCompleted;
+    }
+
+    public Long getLastProductKey() {
+        return lastProductKey;
+    }
+
+    public void setLastProductKey(Long lastProductKey) {
+        this.lastProductKey = lastProductKey;
+    }
+
+    public Double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(Double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogJobStatusDto{" +
+                "jobName='" + jobName + '\'' +
+                ", state='" + state + '\'' +
+                ", rowsProcessed=" + rowsProcessed +
+                ", issuesFound=" + issuesFound +
+                ", chunksCompleted=" + chunksCompleted +
+                ", lastProductKey=" + lastProductKey +
+                ", rowsPerSecond=" + rowsPerSecond +
+                '}';
+    }
+}
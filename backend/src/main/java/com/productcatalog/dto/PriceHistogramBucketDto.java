@@ -0,0 +1,50 @@
+package com.productcatalog.dto;
+
+import java.math.BigDecimal;
+
+public class PriceHistogramBucketDto {
+    private BigDecimal lowerPrice;
+    private BigDecimal upperPrice;
+    private Long count;
+
+    public PriceHistogramBucketDto() {}
+
+    public PriceHistogramBucketDto(BigDecimal lowerPrice, BigDecimal upperPrice, Long count) {
+        this.lowerPrice = lowerPrice;
+        this.upperPrice = upperPrice;
+        this.count = count;
+    }
+
+    public BigDecimal getLowerPrice() {
+        return lowerPrice;
+    }
+
+    public void setLowerPrice(BigDecimal lowerPrice) {
+        this.lowerPrice = lowerPrice;
+    }
+
+    public BigDecimal getUpperPrice() {
+        return upperPrice;
+    }
+
+    public void setUpperPrice(BigDecimal upperPrice) {
+        this.upperPrice = upperPrice;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceHistogramBucketDto{" +
+                "lowerPrice=" + lowerPrice +
+                ", upperPrice=" + upperPrice +
+                ", count=" + count +
+                '}';
+    }
+}
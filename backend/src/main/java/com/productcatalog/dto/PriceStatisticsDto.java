@@ -0,0 +1,114 @@
+package com.productcatalog.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PriceStatisticsDto {
+    private String brand;
+    private String retailer;
+    private Long count;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal avgPrice;
+    private BigDecimal p50Price;
+    private BigDecimal p90Price;
+    private BigDecimal p99Price;
+    private List<PriceHistogramBucketDto> histogram;
+
+    public PriceStatisticsDto() {}
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getRetailer() {
+        return retailer;
+    }
+
+    public void setRetailer(String retailer) {
+        this.retailer = retailer;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public BigDecimal getAvgPrice() {
+        return avgPrice;
+    }
+
+    public void setAvgPrice(BigDecimal avgPrice) {
+        this.avgPrice = avgPrice;
+    }
+
+    public BigDecimal getP50Price() {
+        return p50Price;
+    }
+
+    public void setP50Price(BigDecimal p50Price) {
+        this.p50Price = p50Price;
+    }
+
+    public BigDecimal getP90Price() {
+        return p90Price;
+    }
+
+    public void setP90Price(BigDecimal p90Price) {
+        this.p90Price = p90Price;
+    }
+
+    public BigDecimal getP99Price() {
+        return p99Price;
+    }
+
+    public void setP99Price(BigDecimal p99Price) {
+        this.p99Price = p99Price;
+    }
+
+    public List<PriceHistogramBucketDto> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(List<PriceHistogramBucketDto> histogram) {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceStatisticsDto{" +
+                "brand='" + brand + '\'' +
+                ", retailer='" + retailer + '\'' +
+                ", count=" + count +
+                ", minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", avgPrice=" + avgPrice +
+                ", p50Price=" + p50Price +
+                ", p90Price=" + p90Price +
+                ", p99Price=" + p99Price +
+                '}';
+    }
+}
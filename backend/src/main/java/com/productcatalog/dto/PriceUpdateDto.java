@@ -0,0 +1,45 @@
+package com.productcatalog.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+public class PriceUpdateDto {
+    @NotNull(message = "Product key is required")
+    private Long productKey;
+
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.0", inclusive = true, message = "Price must be non-negative")
+    private BigDecimal price;
+
+    public PriceUpdateDto() {}
+
+    public PriceUpdateDto(Long productKey, BigDecimal price) {
+        this.productKey = productKey;
+        this.price = price;
+    }
+
+    public Long getProductKey() {
+        return productKey;
+    }
+
+    public void setProductKey(Long productKey) {
+        this.productKey = productKey;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceUpdateDto{" +
+                "productKey=" + productKey +
+                ", price=" + price +
+                '}';
+    }
+}
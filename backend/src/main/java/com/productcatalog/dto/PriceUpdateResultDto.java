@@ -0,0 +1,37 @@
+package com.productcatalog.dto;
+
+public class PriceUpdateResultDto {
+    private Long productKey;
+    private String status;
+
+    public PriceUpdateResultDto() {}
+
+    public PriceUpdateResultDto(Long productKey, String status) {
+        this.productKey = productKey;
+        this.status = status;
+    }
+
+    public Long getProductKey() {
+        return productKey;
+    }
+
+    public void setProductKey(Long productKey) {
+        this.productKey = productKey;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceUpdateResultDto{" +
+                "productKey=" + productKey +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package com.productcatalog.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A committed product change (or heartbeat) broadcast between backend instances. Version is the
+ * sending node's sequence number, so receivers can detect missed messages. The brand, retailer
+ * and price before and after the change let receivers adjust their aggregates without a query.
+ */
+public class ProductChangeDto {
+    private String nodeId;
+    private long version;
+    private String type;
+    private Long productKey;
+    private Integer previousBrandId;
+    private Integer previousRetailerId;
+    private BigDecimal previousPrice;
+    private Integer brandId;
+    private Integer retailerId;
+    private BigDecimal price;
+
+    public ProductChangeDto() {}
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getProductKey() {
+        return productKey;
+    }
+
+    public void setProductKey(Long productKey) {
+        this.productKey = productKey;
+    }
+
+    public Integer getPreviousBrandId() {
+        return previousBrandId;
+    }
+
+    public void setPreviousBrandId(Integer previousBrandId) {
+        this.previousBrandId = previousBrandId;
+    }
+
+    public Integer getPreviousRetailerId() {
+        return previousRetailerId;
+    }
+
+    public void setPreviousRetailerId(Integer previousRetailerId) {
+        this.previousRetailerId = previousRetailerId;
+    }
+
+    public BigDecimal getPreviousPrice() {
+        return previousPrice;
+    }
+
+    public void setPreviousPrice(BigDecimal previousPrice) {
+        this.previousPrice = previousPrice;
+    }
+
+    public Integer getBrandId() {
+        return brandId;
+    }
+
+    public void setBrandId(Integer brandId) {
+        this.brandId = brandId;
+    }
+
+    public Integer getRetailerId() {
+        return retailerId;
+    }
+
+    public void setRetailerId(Integer retailerId) {
+        this.retailerId = retailerId;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangeDto{" +
+                "nodeId='" + nodeId + '\'' +
+                ", version=" + version +
+                ", type='" + type + '\'' +
+                ", productKey=" + productKey +
+                ", previousBrandId=" + previousBrandId +
+                ", previousRetailerId=" + previousRetailerId +
+                ", previousPrice=" + previousPrice +
+                ", brandId=" + brandId +
+                ", retailerId=" + retailerId +
+                ", price=" + price +
+                '}';
+    }
+}
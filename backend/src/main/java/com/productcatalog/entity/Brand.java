@@ -0,0 +1,66 @@
+package com.productcatalog.entity;
+
+import jakarta.persistence.*;
+
+import java.util.Locale;
+
+@Entity
+@Table(name = "brand", uniqueConstraints = @UniqueConstraint(name = "brand_key_uk", columnNames = "brand_key"))
+public class Brand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "brand_id")
+    private Integer id;
+
+    @Column(name = "brand_name", length = 64, nullable = false)
+    private String name;
+
+    // Trimmed, lower-cased name; unique, so names differing only by case or spaces are one brand
+    @Column(name = "brand_key", length = 128, nullable = false)
+    private String key;
+
+    // Default constructor
+    public Brand() {}
+
+    public Brand(String name) {
+        setName(name);
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.key = keyOf(name);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Normalized form of a name used for matching: trimmed and lower-cased
+     */
+    public static String keyOf(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "Brand{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.productcatalog.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "catalog_job_checkpoint")
+public class CatalogJobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    // Highest product key below which every product has been processed
+    @Column(name = "last_product_key")
+    private Long lastProductKey;
+
+    @Column(name = "rows_processed", nullable = false)
+    private long rowsProcessed;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated", nullable = false)
+    private Instant updated;
+
+    // Default constructor
+    public CatalogJobCheckpoint() {}
+
+    public CatalogJobCheckpoint(String jobName, Long lastProductKey, long rowsProcessed, boolean completed) {
+        this.jobName = jobName;
+        this.lastProductKey = lastProductKey;
+        this.rowsProcessed = rowsProcessed;
+        this.completed = completed;
+        this.updated = Instant.now();
+    }
+
+    // Getters and Setters
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Long getLastProductKey() {
+        return lastProductKey;
+    }
+
+    public void setLastProductKey(Long lastProductKey) {
+        this.lastProductKey = lastProductKey;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public void setRowsProcessed(long rowsProcessed) {
+        this.rowsProcessed = rowsProcessed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public Instant getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(Instant updated) {
+        this.updated = updated;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogJobCheckpoint{" +
+                "jobName='" + jobName + '\'' +
+                ", lastProductKey=" + lastProductKey +
+                ", rowsProcessed=" + rowsProcessed +
+                ", completed=" + completed +
+                ", updated=" + updated +
+                '}';
+    }
+}
@@ -1,9 +1,11 @@
 package com.productcatalog.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 
 @Entity
@@ -14,10 +16,21 @@ public class Product {
     @Column(name = "product_key")
     private Long productKey;
 
-    @Column(name = "retailer", length = 64)
+    @JsonIgnore
+    @Column(name = "retailer_id")
+    private Integer retailerId;
+
+    @JsonIgnore
+    @Column(name = "brand_id")
+    private Integer brandId;
+
+    // Names resolved from the retailer and brand tables by the service layer
+    @Transient
+    @Size(max = 64, message = "Retailer must be at most 64 characters")
     private String retailer;
 
-    @Column(name = "brand", length = 64)
+    @Transient
+    @Size(max = 64, message = "Brand must be at most 64 characters")
     private String brand;
 
     @Column(name = "model", length = 32)
@@ -59,6 +72,22 @@ public class Product {
         this.productKey = productKey;
     }
 
+    public Integer getRetailerId() {
+        return retailerId;
+    }
+
+    public void setRetailerId(Integer retailerId) {
+        this.retailerId = retailerId;
+    }
+
+    public Integer getBrandId() {
+        return brandId;
+    }
+
+    public void setBrandId(Integer brandId) {
+        this.brandId = brandId;
+    }
+
     public String getRetailer() {
         return retailer;
     }
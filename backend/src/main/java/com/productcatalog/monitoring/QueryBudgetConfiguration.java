@@ -0,0 +1,28 @@
+package com.productcatalog.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the per-request query accounting when productcatalog.query-budget.enabled is on
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+@ConditionalOnProperty(name = "productcatalog.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryBudgetConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(QueryBudgetProperties properties,
+                                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<QueryBudgetFilter> registration =
+                new FilterRegistrationBean<>(new QueryBudgetFilter(properties, meterRegistry.getIfAvailable()));
+        registration.setName("queryBudgetFilter");
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
@@ -0,0 +1,162 @@
+package com.productcatalog.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the JDBC statements, fetched rows and database time of every HTTP request and checks
+ * them against the endpoint's query budget. Totals are recorded as metrics tagged with the
+ * request's method and URI pattern; with productcatalog.query-budget.headers (meant for dev)
+ * they are also returned as X-Query-* response headers. Requests over budget, or running the
+ * same SQL more often than the repeat limit (a likely N+1), are logged and counted.
+ *
+ * Statements are counted on the thread that runs them. A read that RequestCoalescer hands to
+ * concurrent callers is charged to the request that loaded it, and the other requests show
+ * none, so per-request figures under-count coalesced endpoints while their totals stay right.
+ * Registered by QueryBudgetConfiguration.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_STATEMENTS = "X-Query-Count";
+    public static final String HEADER_ROWS = "X-Query-Rows";
+    public static final String HEADER_TIME = "X-Query-Time-Ms";
+    public static final String HEADER_EXCEEDED = "X-Query-Budget-Exceeded";
+
+    public static final String LIMIT_STATEMENTS = "statements";
+    public static final String LIMIT_ROWS = "rows";
+    public static final String LIMIT_TIME = "time";
+    public static final String LIMIT_REPEATED = "repeated";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+    private static final String CATCH_ALL_PATTERN = "/**";
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Headers have to be set before the body is written, so buffer the body when they are on
+        ContentCachingResponseWrapper buffered = properties.isHeaders() ? new ContentCachingResponseWrapper(response) : null;
+        QueryStats stats = QueryStats.start();
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            stats.close();
+            String method = request.getMethod();
+            String uri = uriTag(request, response);
+            List<String> exceeded = check(method + " " + uri, stats);
+            record(method, uri, stats, exceeded);
+            if (buffered != null) {
+                buffered.setHeader(HEADER_STATEMENTS, String.valueOf(stats.getStatementCount()));
+                buffered.setHeader(HEADER_ROWS, String.valueOf(stats.getRowCount()));
+                buffered.setHeader(HEADER_TIME, String.valueOf(stats.getTimeMillis()));
+                if (!exceeded.isEmpty()) {
+                    buffered.setHeader(HEADER_EXCEEDED, String.join(",", exceeded));
+                }
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private List<String> check(String endpoint, QueryStats stats) {
+        QueryBudgetProperties.Budget budget = properties.budgetFor(endpoint);
+        List<String> exceeded = new ArrayList<>();
+        if (budget.getMaxStatements() != null && stats.getStatementCount() > budget.getMaxStatements()) {
+            exceeded.add(LIMIT_STATEMENTS);
+        }
+        if (budget.getMaxRows() != null && stats.getRowCount() > budget.getMaxRows()) {
+            exceeded.add(LIMIT_ROWS);
+        }
+        if (budget.getMaxTimeMs() != null && stats.getTimeMillis() > budget.getMaxTimeMs()) {
+            exceeded.add(LIMIT_TIME);
+        }
+        if (stats.getMostRepeatedCount() > properties.getMaxRepeatedStatements()) {
+            exceeded.add(LIMIT_REPEATED);
+        }
+        if (!exceeded.isEmpty()) {
+            log.warn("Query budget exceeded ({}) by {}: {} statements (max {}), {} rows (max {}), {} ms (max {}); "
+                            + "most repeated statement ran {} times: {}",
+                    String.join(",", exceeded), endpoint,
+                    stats.getStatementCount(), budget.getMaxStatements(),
+                    stats.getRowCount(), budget.getMaxRows(),
+                    stats.getTimeMillis(), budget.getMaxTimeMs(),
+                    stats.getMostRepeatedCount(), stats.getMostRepeatedSql());
+        }
+        return exceeded;
+    }
+
+    private void record(String method, String uri, QueryStats stats, List<String> exceeded) {
+        if (meterRegistry == null) {
+            return;
+        }
+        DistributionSummary.builder("productcatalog.db.statements")
+                .description("JDBC statements executed per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        DistributionSummary.builder("productcatalog.db.rows")
+                .description("Rows fetched per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getRowCount());
+        Timer.builder("productcatalog.db.time")
+                .description("Time spent in JDBC calls per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getTimeNanos(), TimeUnit.NANOSECONDS);
+        for (String limit : exceeded) {
+            Counter.builder("productcatalog.db.budget.exceeded")
+                    .description("HTTP requests over their query budget")
+                    .tags("method", method, "uri", uri, "limit", limit)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /**
+     * URI tag with the same values as Spring's http.server.requests metric: the matched pattern,
+     * or REDIRECTION, NOT_FOUND, root or UNKNOWN for requests no handler pattern matched. A 404
+     * from the static resource handler's catch-all pattern is tagged NOT_FOUND as well.
+     */
+    static String uriTag(HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        HttpStatus status = HttpStatus.resolve(response.getStatus());
+        if (pattern != null && !(status == HttpStatus.NOT_FOUND && CATCH_ALL_PATTERN.equals(pattern))) {
+            return pattern.toString().isEmpty() ? "root" : pattern.toString();
+        }
+        if (status != null && status.is3xxRedirection()) {
+            return "REDIRECTION";
+        }
+        if (status == HttpStatus.NOT_FOUND) {
+            return "NOT_FOUND";
+        }
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null || pathInfo.isEmpty() || "/".equals(pathInfo)) {
+            return "root";
+        }
+        return "UNKNOWN";
+    }
+}
@@ -0,0 +1,134 @@
+package com.productcatalog.monitoring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for per-request query accounting (productcatalog.query-budget.*). Endpoint budgets
+ * are matched on "METHOD /pattern", e.g. "GET /products/{productKey}"; limits an endpoint does
+ * not set come from the default budget.
+ */
+@ConfigurationProperties(prefix = "productcatalog.query-budget")
+public class QueryBudgetProperties {
+
+    private boolean enabled = true;
+    private boolean headers = false;
+    private long slowQueryMs = 500;
+    private int maxRepeatedStatements = 10;
+    private Budget defaultBudget = new Budget();
+    private List<Budget> endpoints = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(boolean headers) {
+        this.headers = headers;
+    }
+
+    public long getSlowQueryMs() {
+        return slowQueryMs;
+    }
+
+    public void setSlowQueryMs(long slowQueryMs) {
+        this.slowQueryMs = slowQueryMs;
+    }
+
+    public int getMaxRepeatedStatements() {
+        return maxRepeatedStatements;
+    }
+
+    public void setMaxRepeatedStatements(int maxRepeatedStatements) {
+        this.maxRepeatedStatements = maxRepeatedStatements;
+    }
+
+    public Budget getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(Budget defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public List<Budget> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<Budget> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * Budget for the given "METHOD /pattern" endpoint, falling back to the default per limit
+     */
+    public Budget budgetFor(String endpoint) {
+        Budget effective = new Budget();
+        effective.setEndpoint(endpoint);
+        effective.setMaxStatements(defaultBudget.getMaxStatements());
+        effective.setMaxRows(defaultBudget.getMaxRows());
+        effective.setMaxTimeMs(defaultBudget.getMaxTimeMs());
+        for (Budget budget : endpoints) {
+            if (endpoint.equals(budget.getEndpoint())) {
+                if (budget.getMaxStatements() != null) {
+                    effective.setMaxStatements(budget.getMaxStatements());
+                }
+                if (budget.getMaxRows() != null) {
+                    effective.setMaxRows(budget.getMaxRows());
+                }
+                if (budget.getMaxTimeMs() != null) {
+                    effective.setMaxTimeMs(budget.getMaxTimeMs());
+                }
+            }
+        }
+        return effective;
+    }
+
+    public static class Budget {
+        private String endpoint;
+        private Long maxStatements;
+        private Long maxRows;
+        private Long maxTimeMs;
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public Long getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(Long maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+
+        public Long getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(Long maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public Long getMaxTimeMs() {
+            return maxTimeMs;
+        }
+
+        public void setMaxTimeMs(Long maxTimeMs) {
+            this.maxTimeMs = maxTimeMs;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.productcatalog.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps a DataSource so every statement execution and fetched row is reported to QueryStats,
+ * and statements slower than a threshold are logged with their SQL. The DataSource itself is a
+ * DelegatingDataSource that closes the pool with it, so Spring still shuts the pool down and
+ * unwrap() or DelegatingDataSource-aware lookups (such as the Hikari metrics binder) reach it.
+ * Connections, statements and result sets are JDK proxies that delegate everything else,
+ * including unwrap(), to the driver objects.
+ */
+public final class QueryCountingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountingDataSource.class);
+
+    private QueryCountingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource target, long slowQueryMillis) {
+        return new CountingDataSource(target, slowQueryMillis * 1_000_000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private abstract static class DelegatingHandler implements InvocationHandler {
+        private final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        Object handle(Method method, Object[] args) throws Throwable {
+            return delegate(method, args);
+        }
+
+        final Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource implements Closeable {
+        private final long slowQueryNanos;
+
+        CountingDataSource(DataSource target, long slowQueryNanos) {
+            super(target);
+            this.slowQueryNanos = slowQueryNanos;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (obtainTargetDataSource() instanceof Closeable) {
+                ((Closeable) obtainTargetDataSource()).close();
+            }
+        }
+
+        private Connection counting(Connection connection) {
+            return proxy(Connection.class, connection, new ConnectionHandler(connection, slowQueryNanos));
+        }
+    }
+
+    private static final class ConnectionHandler extends DelegatingHandler {
+        private final long slowQueryNanos;
+
+        ConnectionHandler(Connection target, long slowQueryNanos) {
+            super(target);
+            this.slowQueryNanos = slowQueryNanos;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxy(Statement.class, result, new StatementHandler(result, null, slowQueryNanos));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, result, new StatementHandler(result, (String) args[0], slowQueryNanos));
+                case "prepareCall":
+                    return proxy(CallableStatement.class, result, new StatementHandler(result, (String) args[0], slowQueryNanos));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private static final class StatementHandler extends DelegatingHandler {
+        private final String preparedSql;
+        private final long slowQueryNanos;
+
+        StatementHandler(Object target, String preparedSql, long slowQueryNanos) {
+            super(target);
+            this.preparedSql = preparedSql;
+            this.slowQueryNanos = slowQueryNanos;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = delegate(method, args);
+                if (result instanceof ResultSet && (name.equals("getResultSet") || name.equals("getGeneratedKeys"))) {
+                    return proxy(ResultSet.class, result, new ResultSetHandler(result));
+                }
+                return result;
+            }
+
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            long started = System.nanoTime();
+            try {
+                Object result = delegate(method, args);
+                return result instanceof ResultSet ? proxy(ResultSet.class, result, new ResultSetHandler(result)) : result;
+            } finally {
+                long elapsed = System.nanoTime() - started;
+                QueryStats.statementExecuted(sql, elapsed);
+                if (elapsed >= slowQueryNanos) {
+                    log.warn("Slow query ({} ms): {}", elapsed / 1_000_000, sql);
+                }
+            }
+        }
+    }
+
+    private static final class ResultSetHandler extends DelegatingHandler {
+        ResultSetHandler(Object target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            if (!method.getName().equals("next")) {
+                return delegate(method, args);
+            }
+            long started = System.nanoTime();
+            Object hasRow = delegate(method, args);
+            if (Boolean.TRUE.equals(hasRow)) {
+                QueryStats.rowFetched(System.nanoTime() - started);
+            } else {
+                QueryStats.fetchTime(System.nanoTime() - started);
+            }
+            return hasRow;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.productcatalog.monitoring;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+/**
+ * Routes the application's DataSource through QueryCountingDataSource. Only the primary
+ * DataSource bean is wrapped: the sole one, or the one marked primary when there are several.
+ */
+@Component
+@ConditionalOnProperty(name = "productcatalog.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final long slowQueryMillis;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    public QueryCountingDataSourcePostProcessor(@Value("${productcatalog.query-budget.slow-query-ms:500}") long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && isPrimary(beanName)) {
+            return QueryCountingDataSource.wrap((DataSource) bean, slowQueryMillis);
+        }
+        return bean;
+    }
+
+    private boolean isPrimary(String beanName) {
+        String[] dataSources = beanFactory.getBeanNamesForType(DataSource.class, true, false);
+        if (!Arrays.asList(dataSources).contains(beanName)) {
+            return false;
+        }
+        return dataSources.length == 1
+                || beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary();
+    }
+}
@@ -0,0 +1,120 @@
+package com.productcatalog.monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC activity recorded on the current thread: statements executed, rows fetched and time
+ * spent in the driver. QueryBudgetFilter keeps one per HTTP request; tests can open their own
+ * around any block of code. Scopes nest, and every statement counts towards all open scopes.
+ */
+public final class QueryStats implements AutoCloseable {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    private final Map<String, Integer> executions = new HashMap<>();
+    private long statementCount;
+    private long rowCount;
+    private long timeNanos;
+    private String mostRepeatedSql;
+    private int mostRepeatedCount;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Start recording on the current thread until close()
+     */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * The innermost open scope on this thread, or null
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementExecuted(String sql, long nanos) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statementCount++;
+            stats.timeNanos += nanos;
+            if (sql != null) {
+                int count = stats.executions.merge(sql, 1, Integer::sum);
+                if (count > stats.mostRepeatedCount) {
+                    stats.mostRepeatedCount = count;
+                    stats.mostRepeatedSql = sql;
+                }
+            }
+        }
+    }
+
+    static void rowFetched(long nanos) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.rowCount++;
+            stats.timeNanos += nanos;
+        }
+    }
+
+    static void fetchTime(long nanos) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.timeNanos += nanos;
+        }
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    public long getTimeMillis() {
+        return timeNanos / 1_000_000;
+    }
+
+    /**
+     * How often the most repeated SQL ran; a high number usually means an N+1 query pattern
+     */
+    public int getMostRepeatedCount() {
+        return mostRepeatedCount;
+    }
+
+    public String getMostRepeatedSql() {
+        return mostRepeatedSql;
+    }
+
+    /**
+     * Stop recording and return to the enclosing scope
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStats{" +
+                "statementCount=" + statementCount +
+                ", rowCount=" + rowCount +
+                ", timeMillis=" + getTimeMillis() +
+                ", mostRepeatedCount=" + mostRepeatedCount +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.productcatalog.repository;
+
+import com.productcatalog.entity.Brand;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface BrandRepository extends JpaRepository<Brand, Integer> {
+
+    /**
+     * Find a brand by its normalized name (see Brand.keyOf)
+     */
+    Optional<Brand> findByKey(String key);
+
+    /**
+     * Insert a brand unless one with the same normalized name exists. Runs in the caller's
+     * transaction; a concurrent insert of the same key makes this wait for it and do nothing.
+     * Relies on the unique constraint on brand_key, which Hibernate-managed schemas get from the entity.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO brand (brand_name, brand_key) VALUES (:name, :key) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("key") String key);
+}
@@ -0,0 +1,9 @@
+package com.productcatalog.repository;
+
+import com.productcatalog.entity.CatalogJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogJobCheckpointRepository extends JpaRepository<CatalogJobCheckpoint, String> {
+}
@@ -1,20 +1,26 @@
 package com.productcatalog.repository;
 
 import com.productcatalog.entity.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     /**
-     * Find products by brand (case-insensitive)
+     * Find products by brand id
      */
-    List<Product> findByBrandIgnoreCase(String brand);
+    List<Product> findByBrandId(Integer brandId);
 
     /**
      * Find products by product name containing the given text (case-insensitive)
@@ -22,14 +28,70 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByProductNameContainingIgnoreCase(String productName);
 
     /**
-     * Get brand summary with count of products grouped by brand using JPQL
+     * Get brand summary with count of products grouped by brand id using JPQL
      */
-    @Query("SELECT p.brand as brand, COUNT(p) as count FROM Product p WHERE p.brand IS NOT NULL GROUP BY p.brand ORDER BY COUNT(p) DESC")
+    @Query("SELECT p.brandId as brandId, COUNT(p) as count FROM Product p WHERE p.brandId IS NOT NULL GROUP BY p.brandId ORDER BY COUNT(p) DESC")
     List<Object[]> getBrandSummary();
 
     /**
      * Alternative native SQL query for brand summary
      */
-    @Query(value = "SELECT brand, COUNT(*) as count FROM product WHERE brand IS NOT NULL GROUP BY brand ORDER BY count DESC", nativeQuery = true)
+    @Query(value = "SELECT brand_id, COUNT(*) as count FROM product WHERE brand_id IS NOT NULL GROUP BY brand_id ORDER BY count DESC", nativeQuery = true)
     List<Object[]> getBrandSummaryNative();
+
+    /**
+     * Lowest and highest product key as a single row (both null if the table is empty)
+     */
+    @Query("SELECT MIN(p.productKey), MAX(p.productKey) FROM Product p")
+    List<Object[]> getProductKeyRange();
+
+    /**
+     * Key, brand id, retailer id and price of the products with keys in (afterKey, toKey], in key
+     * order and without loading the full entities; page through by passing the last key read
+     */
+    @Query("SELECT p.productKey, p.brandId, p.retailerId, p.price FROM Product p "
+            + "WHERE p.productKey > :afterKey AND p.productKey <= :toKey ORDER BY p.productKey")
+    List<Object[]> findPricePointsAfter(@Param("afterKey") Long afterKey, @Param("toKey") Long toKey,
+                                        Pageable pageable);
+
+    /**
+     * Prices of the products with the given brand id and retailer id, either of which may be null
+     */
+    @Query("SELECT p.price FROM Product p WHERE "
+            + "(p.brandId = :brandId OR (:brandId IS NULL AND p.brandId IS NULL)) AND "
+            + "(p.retailerId = :retailerId OR (:retailerId IS NULL AND p.retailerId IS NULL))")
+    List<BigDecimal> getGroupPrices(@Param("brandId") Integer brandId, @Param("retailerId") Integer retailerId);
+
+    /**
+     * Find a product by key, locking its row until the surrounding transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productKey = :productKey")
+    Optional<Product> findByIdForUpdate(@Param("productKey") Long productKey);
+
+    /**
+     * Key, brand id, retailer id and price of the given products, locking their rows until the
+     * surrounding transaction ends. Rows are locked in key order so concurrent batches cannot deadlock.
+     */
+    @Query(value = "SELECT product_key, brand_id, retailer_id, product_price FROM product "
+            + "WHERE product_key IN (:keys) ORDER BY product_key FOR UPDATE", nativeQuery = true)
+    List<Object[]> findPricePointsForUpdate(@Param("keys") Collection<Long> keys);
+
+    /**
+     * Product keys greater than the given key in ascending order, used to split the table into chunks
+     */
+    @Query("SELECT p.productKey FROM Product p WHERE p.productKey > :afterKey ORDER BY p.productKey")
+    List<Long> findProductKeysAfter(@Param("afterKey") Long afterKey, Pageable pageable);
+
+    /**
+     * Products within an inclusive product key range, ordered by product key
+     */
+    List<Product> findByProductKeyBetweenOrderByProductKey(Long fromKey, Long toKey);
+
+    /**
+     * Planner row estimate for the product table on the current search path (PostgreSQL only,
+     * -1 if never analyzed)
+     */
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = to_regclass('product')", nativeQuery = true)
+    Long estimateRowCount();
 }
\ No newline at end of file
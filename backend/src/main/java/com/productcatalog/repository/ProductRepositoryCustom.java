@@ -0,0 +1,24 @@
+package com.productcatalog.repository;
+
+import com.productcatalog.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Product writes not covered by JpaRepository
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Persist a product whose key is known to be free. Unlike save(), which merges entities with
+     * an assigned key and so selects the row first, this issues only the insert.
+     */
+    Product insert(Product product);
+
+    /**
+     * Set the price of each given product in one JDBC batch, without loading the entities.
+     * Entities of these products already in the persistence context are not refreshed.
+     */
+    void updatePrices(Map<Long, BigDecimal> prices);
+}
@@ -0,0 +1,44 @@
+package com.productcatalog.repository;
+
+import com.productcatalog.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String UPDATE_PRICE_SQL = "UPDATE product SET product_price = ? WHERE product_key = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Product insert(Product product) {
+        entityManager.persist(product);
+        return product;
+    }
+
+    @Override
+    @Transactional
+    public void updatePrices(Map<Long, BigDecimal> prices) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_PRICE_SQL)) {
+                for (Map.Entry<Long, BigDecimal> price : prices.entrySet()) {
+                    statement.setBigDecimal(1, price.getValue());
+                    statement.setLong(2, price.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
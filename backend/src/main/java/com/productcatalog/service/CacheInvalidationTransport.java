@@ -0,0 +1,52 @@
+package com.productcatalog.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Carries product change messages between backend instances. Messages from one sender must be
+ * delivered in the order they were published; every instance, including the sender, may
+ * receive them. Transports that retain changes for a while let instances replay the ones they
+ * missed instead of dropping all cached state.
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * Send messages to all instances, in order, retaining the replayable ones. Called inside a
+     * transaction, they are sent and retained only if it commits; either all messages are sent
+     * or none is.
+     */
+    void publish(List<Message> messages);
+
+    /**
+     * Start delivering received messages. onReset runs whenever messages may have been lost,
+     * such as after reconnecting.
+     */
+    void start(Consumer<String> receiver, Runnable onReset);
+
+    void stop();
+
+    /**
+     * Oldest and newest retained version of every sender with retained changes
+     */
+    default Map<String, Retained> retainedVersions() {
+        return Map.of();
+    }
+
+    /**
+     * Retained messages of one sender with afterVersion < version <= upToVersion, oldest first.
+     * Versions that are no longer retained are simply missing from the result.
+     */
+    default List<String> replay(String nodeId, long afterVersion, long upToVersion) {
+        return List.of();
+    }
+
+    /**
+     * A message stamped by its sender. Heartbeats repeat the sender's latest version and are
+     * not replayable.
+     */
+    record Message(String nodeId, long version, boolean replayable, String body) {}
+
+    record Retained(long firstVersion, long lastVersion) {}
+}
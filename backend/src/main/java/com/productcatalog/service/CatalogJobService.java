@@ -0,0 +1,339 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.CatalogJobStatusDto;
+import com.productcatalog.entity.CatalogJobCheckpoint;
+import com.productcatalog.entity.Product;
+import com.productcatalog.repository.CatalogJobCheckpointRepository;
+import com.productcatalog.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a CatalogTask over the whole product table. The table is split into chunks of
+ * consecutive product keys which are processed in parallel on a worker pool; at most a fixed
+ * number of chunks are loaded at any time. Progress is checkpointed as the highest product key
+ * below which every chunk has finished, so a failed or cancelled job resumes from there.
+ */
+@Service
+public class CatalogJobService {
+
+    public static final String STATE_IDLE = "IDLE";
+    public static final String STATE_RUNNING = "RUNNING";
+    public static final String STATE_COMPLETED = "COMPLETED";
+    public static final String STATE_FAILED = "FAILED";
+    public static final String STATE_CANCELLED = "CANCELLED";
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogJobService.class);
+
+    private final ProductRepository productRepository;
+    private final CatalogJobCheckpointRepository checkpointRepository;
+    private final DimensionDictionary dimensionDictionary;
+    private final Map<String, CatalogTask> tasks;
+    private final int chunkSize;
+    private final int maxInFlightChunks;
+    private final ExecutorService workers;
+    private final ExecutorService coordinators;
+    private final ConcurrentHashMap<String, JobRun> runs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CatalogJobService(ProductRepository productRepository,
+                             CatalogJobCheckpointRepository checkpointRepository,
+                             DimensionDictionary dimensionDictionary,
+                             List<CatalogTask> tasks,
+                             @Value("${productcatalog.jobs.parallelism:0}") int parallelism,
+                             @Value("${productcatalog.jobs.chunk-size:1000}") int chunkSize,
+                             @Value("${productcatalog.jobs.max-in-flight-chunks:0}") int maxInFlightChunks) {
+        this.productRepository = productRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.dimensionDictionary = dimensionDictionary;
+        this.tasks = tasks.stream().collect(Collectors.toMap(CatalogTask::getName, Function.identity()));
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+        this.maxInFlightChunks = maxInFlightChunks > 0 ? maxInFlightChunks : threads * 2;
+        this.workers = Executors.newFixedThreadPool(threads, daemonThreads("catalog-job-worker-"));
+        this.coordinators = Executors.newCachedThreadPool(daemonThreads("catalog-job-"));
+    }
+
+    /**
+     * Start a job in the background, resuming from its checkpoint unless resume is false
+     */
+    public CatalogJobStatusDto start(String jobName, boolean resume) {
+        CatalogTask task = task(jobName);
+        if (isRunning(runs.get(jobName))) {
+            throw new IllegalStateException("Job already running: " + jobName);
+        }
+        // Read the checkpoint before compute(), which holds the map bin's lock while it runs.
+        // A run that is not running has already saved its final checkpoint.
+        Optional<CatalogJobCheckpoint> checkpoint = resume
+                ? checkpointRepository.findById(jobName).filter(saved -> !saved.isCompleted())
+                : Optional.empty();
+        JobRun run = runs.compute(jobName, (name, existing) -> {
+            if (isRunning(existing)) {
+                throw new IllegalStateException("Job already running: " + name);
+            }
+            return new JobRun(task,
+                    checkpoint.map(CatalogJobCheckpoint::getLastProductKey).orElse(null),
+                    checkpoint.map(CatalogJobCheckpoint::getRowsProcessed).orElse(0L));
+        });
+        coordinators.execute(() -> execute(run));
+        return run.toStatus();
+    }
+
+    /**
+     * Ask a running job to stop after the chunks already in flight. Its checkpoint is kept.
+     */
+    public CatalogJobStatusDto cancel(String jobName) {
+        task(jobName);
+        JobRun run = runs.get(jobName);
+        if (!isRunning(run)) {
+            throw new IllegalStateException("Job not running: " + jobName);
+        }
+        run.cancelRequested = true;
+        return run.toStatus();
+    }
+
+    /**
+     * Get the status of the current or last run, or of the saved checkpoint after a restart
+     */
+    public CatalogJobStatusDto getStatus(String jobName) {
+        task(jobName);
+        JobRun run = runs.get(jobName);
+        if (run != null) {
+            return run.toStatus();
+        }
+        CatalogJobStatusDto status = new CatalogJobStatusDto();
+        status.setJobName(jobName);
+        status.setState(STATE_IDLE);
+        checkpointRepository.findById(jobName).ifPresent(checkpoint -> {
+            status.setState(checkpoint.isCompleted() ? STATE_COMPLETED : STATE_IDLE);
+            status.setRowsProcessed(checkpoint.getRowsProcessed());
+            status.setLastProductKey(checkpoint.getLastProductKey());
+            status.setFinishedAt(checkpoint.getUpdated());
+        });
+        return status;
+    }
+
+    /**
+     * Get the status of every registered job
+     */
+    public List<CatalogJobStatusDto> getStatuses() {
+        return tasks.keySet().stream()
+                .sorted()
+                .map(this::getStatus)
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinators.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private CatalogTask task(String jobName) {
+        CatalogTask task = tasks.get(jobName);
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown job: " + jobName);
+        }
+        return task;
+    }
+
+    private static boolean isRunning(JobRun run) {
+        return run != null && STATE_RUNNING.equals(run.state);
+    }
+
+    private void execute(JobRun run) {
+        String jobName = run.task.getName();
+        Semaphore inFlight = new Semaphore(maxInFlightChunks);
+        long afterKey = run.startAfterKey != null ? run.startAfterKey : Long.MIN_VALUE;
+        long sequence = 0;
+        log.info("Starting catalog job {} after product key {}", jobName, run.startAfterKey);
+
+        try {
+            while (!run.cancelRequested && run.error == null) {
+                List<Long> keys = productRepository.findProductKeysAfter(afterKey, PageRequest.of(0, chunkSize));
+                if (keys.isEmpty()) {
+                    break;
+                }
+                Chunk chunk = new Chunk(sequence++, keys.get(0), keys.get(keys.size() - 1));
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        processChunk(run, chunk);
+                    } catch (RuntimeException e) {
+                        run.error = e;
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                afterKey = chunk.toKey;
+            }
+            // Wait for the chunks still in flight
+            inFlight.acquire(maxInFlightChunks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.cancelRequested = true;
+        } catch (RuntimeException e) {
+            run.error = e;
+        }
+
+        if (run.error == null && !run.cancelRequested) {
+            try {
+                saveCheckpoint(run, true);
+            } catch (RuntimeException e) {
+                run.error = e;
+            }
+        }
+        run.finish();
+        if (run.error != null) {
+            log.error("Catalog job {} failed, resumable after product key {}", jobName, run.watermarkKey, run.error);
+        } else {
+            log.info("Catalog job {} {}: {} rows, {} issues, {} rows/s", jobName, run.state.toLowerCase(),
+                    run.rowsProcessed, run.issuesFound, String.format("%.1f", run.rowsPerSecond()));
+        }
+    }
+
+    private void processChunk(JobRun run, Chunk chunk) {
+        if (run.cancelRequested || run.error != null) {
+            return;
+        }
+        List<Product> products = dimensionDictionary.fillNames(
+                productRepository.findByProductKeyBetweenOrderByProductKey(chunk.fromKey, chunk.toKey));
+        long issues = run.task.process(products);
+        if (run.chunkCompleted(chunk, products.size(), issues)) {
+            saveCheckpoint(run, false);
+        }
+    }
+
+    /**
+     * Save the current watermark. Reading it under the run's lock keeps saved checkpoints
+     * monotonic even when workers finish out of order.
+     */
+    private void saveCheckpoint(JobRun run, boolean completed) {
+        synchronized (run) {
+            checkpointRepository.save(new CatalogJobCheckpoint(run.task.getName(), run.watermarkKey,
+                    run.priorRows + run.watermarkRows, completed));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Chunk {
+        private final long sequence;
+        private final long fromKey;
+        private final long toKey;
+        private long rows;
+
+        private Chunk(long sequence, long fromKey, long toKey) {
+            this.sequence = sequence;
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+    }
+
+    private static final class JobRun {
+        private final CatalogTask task;
+        private final Long startAfterKey;
+        private final long priorRows;
+        private final Instant startedAt = Instant.now();
+        private final TreeMap<Long, Chunk> finishedAhead = new TreeMap<>();
+
+        private volatile String state = STATE_RUNNING;
+        private volatile boolean cancelRequested;
+        private volatile RuntimeException error;
+        private volatile Instant finishedAt;
+
+        private long nextSequence;
+        private Long watermarkKey;
+        private long watermarkRows;
+        private long rowsProcessed;
+        private long issuesFound;
+        private long chunksCompleted;
+
+        private JobRun(CatalogTask task, Long startAfterKey, long priorRows) {
+            this.task = task;
+            this.startAfterKey = startAfterKey;
+            this.priorRows = priorRows;
+            this.watermarkKey = startAfterKey;
+        }
+
+        /**
+         * Record a finished chunk, returning whether the watermark moved
+         */
+        private synchronized boolean chunkCompleted(Chunk chunk, long rows, long issues) {
+            chunk.rows = rows;
+            rowsProcessed += rows;
+            issuesFound += issues;
+            chunksCompleted++;
+            finishedAhead.put(chunk.sequence, chunk);
+
+            boolean advanced = false;
+            while (!finishedAhead.isEmpty() && finishedAhead.firstKey() == nextSequence) {
+                Chunk contiguous = finishedAhead.pollFirstEntry().getValue();
+                watermarkKey = contiguous.toKey;
+                watermarkRows += contiguous.rows;
+                nextSequence++;
+                advanced = true;
+            }
+            return advanced;
+        }
+
+        private synchronized void finish() {
+            finishedAt = Instant.now();
+            if (error != null) {
+                state = STATE_FAILED;
+            } else if (cancelRequested) {
+                state = STATE_CANCELLED;
+            } else {
+                state = STATE_COMPLETED;
+            }
+        }
+
+        private synchronized double rowsPerSecond() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+            return rowsProcessed * 1000.0 / millis;
+        }
+
+        private synchronized CatalogJobStatusDto toStatus() {
+            CatalogJobStatusDto status = new CatalogJobStatusDto();
+            status.setJobName(task.getName());
+            status.setState(state);
+            status.setRowsProcessed(priorRows + rowsProcessed);
+            status.setIssuesFound(issuesFound);
+            status.setChunksCompleted(chunksCompleted);
+            status.setLastProductKey(watermarkKey);
+            status.setRowsPerSecond(rowsPerSecond());
+            status.setStartedAt(startedAt);
+            status.setFinishedAt(finishedAt);
+            status.setError(error != null ? error.getMessage() : null);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.productcatalog.service;
+
+import com.productcatalog.entity.Product;
+
+import java.util.List;
+
+/**
+ * A unit of work applied to every product by CatalogJobService. Implementations are Spring
+ * beans and are started by name through the admin endpoint. Chunks are handed to several
+ * threads at once, so implementations must be thread-safe.
+ */
+public interface CatalogTask {
+
+    /**
+     * Name used to start the job and to key its checkpoint
+     */
+    String getName();
+
+    /**
+     * Process one chunk of products ordered by product key, returning the number of issues found
+     */
+    long process(List<Product> products);
+}
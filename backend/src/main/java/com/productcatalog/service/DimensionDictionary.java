@@ -0,0 +1,213 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.ProductChangeDto;
+import com.productcatalog.entity.Brand;
+import com.productcatalog.entity.Product;
+import com.productcatalog.entity.Retailer;
+import com.productcatalog.repository.BrandRepository;
+import com.productcatalog.repository.RetailerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory id/name dictionary for the brand and retailer tables. Products store integer
+ * foreign keys; this class translates API names to ids on write and ids back to names on
+ * read. Names match by their normalized key (trimmed, lower-cased), so "bosch" and " Bosch"
+ * resolve to the same brand, and products are returned with the spelling the entry was created with.
+ */
+@Component
+public class DimensionDictionary implements ProductChangeListener {
+
+    private final Dictionary<Brand> brands;
+    private final Dictionary<Retailer> retailers;
+
+    @Autowired
+    public DimensionDictionary(BrandRepository brandRepository, RetailerRepository retailerRepository) {
+        this.brands = new Dictionary<>(brandRepository::findAll, brandRepository::findById,
+                brandRepository::findByKey, brandRepository::insertIfAbsent,
+                Brand::getId, Brand::getName, Brand::keyOf);
+        this.retailers = new Dictionary<>(retailerRepository::findAll, retailerRepository::findById,
+                retailerRepository::findByKey, retailerRepository::insertIfAbsent,
+                Retailer::getId, Retailer::getName, Retailer::keyOf);
+    }
+
+    /**
+     * Look up the id of an existing brand without creating it
+     */
+    public Optional<Integer> findBrandId(String name) {
+        return brands.findId(name);
+    }
+
+    /**
+     * Get the canonical name of a brand id, or null
+     */
+    public String getBrandName(Integer id) {
+        return brands.getName(id);
+    }
+
+    /**
+     * Get the canonical name of a retailer id, or null
+     */
+    public String getRetailerName(Integer id) {
+        return retailers.getName(id);
+    }
+
+    /**
+     * Set the brand and retailer ids from the product's names, creating missing entries. Call it
+     * in the product's write transaction: created entries are rolled back with a failed write, and
+     * only join the dictionary once the transaction commits.
+     */
+    public Product resolveIds(Product product) {
+        product.setBrandId(brands.getOrCreateId(product.getBrand()));
+        product.setRetailerId(retailers.getOrCreateId(product.getRetailer()));
+        return product;
+    }
+
+    /**
+     * Set the brand and retailer names from the product's ids
+     */
+    public Product fillNames(Product product) {
+        product.setBrand(brands.getName(product.getBrandId()));
+        product.setRetailer(retailers.getName(product.getRetailerId()));
+        return product;
+    }
+
+    public List<Product> fillNames(List<Product> products) {
+        products.forEach(this::fillNames);
+        return products;
+    }
+
+    /**
+     * Drop cached entries so they are reloaded from the database
+     */
+    public void invalidate() {
+        brands.clear();
+        retailers.clear();
+    }
+
+    @Override
+    public void onRemoteChange(ProductChangeDto change) {
+        // Ids created by other instances are loaded on the first cache miss
+    }
+
+    @Override
+    public void reload(ProductChangeDto change) {
+        // Nothing was derived from the change
+    }
+
+    @Override
+    public void resync() {
+        invalidate();
+    }
+
+    private static final class Dictionary<T> {
+        private final Supplier<List<T>> loadAll;
+        private final Function<Integer, Optional<T>> loadById;
+        private final Function<String, Optional<T>> loadByKey;
+        private final BiConsumer<String, String> create;
+        private final Function<T, Integer> idOf;
+        private final Function<T, String> nameOf;
+        private final UnaryOperator<String> keyOf;
+
+        private final ConcurrentHashMap<Integer, String> names = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private volatile boolean loaded;
+
+        private Dictionary(Supplier<List<T>> loadAll, Function<Integer, Optional<T>> loadById,
+                           Function<String, Optional<T>> loadByKey, BiConsumer<String, String> create,
+                           Function<T, Integer> idOf, Function<T, String> nameOf, UnaryOperator<String> keyOf) {
+            this.loadAll = loadAll;
+            this.loadById = loadById;
+            this.loadByKey = loadByKey;
+            this.create = create;
+            this.idOf = idOf;
+            this.nameOf = nameOf;
+            this.keyOf = keyOf;
+        }
+
+        private String getName(Integer id) {
+            if (id == null) {
+                return null;
+            }
+            ensureLoaded();
+            String name = names.get(id);
+            if (name == null) {
+                // Created by another instance since the dictionary was loaded
+                name = loadById.apply(id).map(this::remember).map(nameOf).orElse(null);
+            }
+            return name;
+        }
+
+        private Optional<Integer> findId(String name) {
+            if (name == null || name.isBlank()) {
+                return Optional.empty();
+            }
+            ensureLoaded();
+            Integer id = ids.get(keyOf.apply(name));
+            if (id != null) {
+                return Optional.of(id);
+            }
+            return loadByKey.apply(keyOf.apply(name)).map(this::remember).map(idOf);
+        }
+
+        private Integer getOrCreateId(String name) {
+            Optional<Integer> existing = findId(name);
+            if (existing.isPresent() || name == null || name.isBlank()) {
+                return existing.orElse(null);
+            }
+            // No lock here: the insert may wait on another transaction creating the same name
+            String key = keyOf.apply(name);
+            create.accept(name.trim(), key);
+            T created = loadByKey.apply(key)
+                    .orElseThrow(() -> new IllegalStateException("Dimension entry not found after insert: " + key));
+            rememberAfterCommit(created);
+            return idOf.apply(created);
+        }
+
+        private void rememberAfterCommit(T entry) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                remember(entry);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(entry);
+                }
+            });
+        }
+
+        private T remember(T entry) {
+            names.put(idOf.apply(entry), nameOf.apply(entry));
+            ids.put(keyOf.apply(nameOf.apply(entry)), idOf.apply(entry));
+            return entry;
+        }
+
+        private void ensureLoaded() {
+            if (!loaded) {
+                synchronized (this) {
+                    if (!loaded) {
+                        loadAll.get().forEach(this::remember);
+                        loaded = true;
+                    }
+                }
+            }
+        }
+
+        private synchronized void clear() {
+            loaded = false;
+            names.clear();
+            ids.clear();
+        }
+    }
+}
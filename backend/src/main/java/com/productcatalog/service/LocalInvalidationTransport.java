@@ -0,0 +1,28 @@
+package com.productcatalog.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Default transport, for a single instance (or databases without LISTEN/NOTIFY, such as H2):
+ * there is nobody to tell, so messages are dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "productcatalog.cache-sync.transport", havingValue = "local", matchIfMissing = true)
+public class LocalInvalidationTransport implements CacheInvalidationTransport {
+
+    @Override
+    public void publish(List<Message> messages) {
+    }
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onReset) {
+    }
+
+    @Override
+    public void stop() {
+    }
+}
@@ -0,0 +1,194 @@
+package com.productcatalog.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Transport using PostgreSQL LISTEN/NOTIFY, so no extra infrastructure is needed. Messages are
+ * appended to product_change_log and sent with pg_notify in the caller's transaction (the
+ * product write), which PostgreSQL delivers on commit, in commit order; the log keeps them for
+ * log-retention-ms so instances that missed them can replay them. The table comes from
+ * db/schema.sql. The listener holds its own unpooled connection, re-established when it drops;
+ * reconnecting triggers a reset because notifications sent meanwhile are lost.
+ */
+@Component
+@ConditionalOnProperty(name = "productcatalog.cache-sync.transport", havingValue = "postgres")
+public class PostgresInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final long reconnectDelayMillis;
+    private final long logRetentionMillis;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    @Autowired
+    public PostgresInvalidationTransport(DataSource dataSource, TransactionTemplate transactionTemplate,
+                                         DataSourceProperties dataSourceProperties,
+                                         @Value("${productcatalog.cache-sync.channel:product_changes}") String channel,
+                                         @Value("${productcatalog.cache-sync.reconnect-delay-ms:5000}") long reconnectDelayMillis,
+                                         @Value("${productcatalog.cache-sync.log-retention-ms:600000}") long logRetentionMillis) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.logRetentionMillis = logRetentionMillis;
+    }
+
+    /**
+     * Joins the caller's transaction, or runs in one of its own outside a transaction
+     */
+    @Override
+    public void publish(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<Object[]> appended = messages.stream()
+                .filter(Message::replayable)
+                .map(message -> new Object[]{message.nodeId(), message.version(), message.body()})
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!appended.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO product_change_log (node_id, version, message) VALUES (?, ?, ?)",
+                        appended);
+            }
+            for (Message message : messages) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rows -> null,
+                        channel, message.body());
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Retained> retainedVersions() {
+        Map<String, Retained> retained = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT node_id, MIN(version), MAX(version) FROM product_change_log GROUP BY node_id",
+                row -> {
+                    retained.put(row.getString(1), new Retained(row.getLong(2), row.getLong(3)));
+                });
+        return retained;
+    }
+
+    @Override
+    public List<String> replay(String nodeId, long afterVersion, long upToVersion) {
+        return jdbcTemplate.queryForList("SELECT message FROM product_change_log "
+                        + "WHERE node_id = ? AND version > ? AND version <= ? ORDER BY version",
+                String.class, nodeId, afterVersion, upToVersion);
+    }
+
+    /**
+     * Delete changes older than the retention period. Every instance runs this; the deletes
+     * are idempotent.
+     */
+    @Scheduled(fixedDelayString = "${productcatalog.cache-sync.log-prune-interval-ms:60000}",
+               initialDelayString = "${productcatalog.cache-sync.log-prune-interval-ms:60000}")
+    public void pruneLog() {
+        try {
+            int pruned = jdbcTemplate.update("DELETE FROM product_change_log "
+                    + "WHERE created < now() - ? * interval '1 millisecond'", logRetentionMillis);
+            log.debug("Pruned {} product changes from the change log", pruned);
+        } catch (RuntimeException e) {
+            log.warn("Failed to prune the product change log", e);
+        }
+    }
+
+    @Override
+    public synchronized void start(Consumer<String> receiver, Runnable onReset) {
+        Boolean logTable = jdbcTemplate.queryForObject("SELECT to_regclass('product_change_log') IS NOT NULL",
+                Boolean.class);
+        if (!Boolean.TRUE.equals(logTable)) {
+            throw new IllegalStateException("Table product_change_log is missing; create it from db/schema.sql");
+        }
+        running = true;
+        listener = new Thread(() -> listen(receiver, onReset), "cache-sync-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            try {
+                listener.join(POLL_TIMEOUT_MILLIS * 4L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A physical connection outside the pool: LISTEN holds it for the life of the instance, and
+     * it must not count against the pool's size or be handed to another thread.
+     */
+    private Connection openListenerConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void listen(Consumer<String> receiver, Runnable onReset) {
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for product changes on channel {}", channel);
+                // Anything sent before LISTEN took effect was missed
+                onReset.run();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receiver.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Product change listener lost its connection, retrying in {} ms", reconnectDelayMillis, e);
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
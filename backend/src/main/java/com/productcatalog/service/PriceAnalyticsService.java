@@ -0,0 +1,395 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.PriceHistogramBucketDto;
+import com.productcatalog.dto.PriceStatisticsDto;
+import com.productcatalog.dto.ProductChangeDto;
+import com.productcatalog.entity.Product;
+import com.productcatalog.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Per brand/retailer price statistics kept as one PriceSketch per (brand id, retailer id) pair.
+ * Sketches are built from the catalog on first use, then maintained incrementally by
+ * ProductService writes and by changes broadcast from other instances; coarser groupings are
+ * produced by merging the pair sketches. A pair whose lowest or highest price was removed is
+ * reloaded from the database on the next read, so reported min and max prices stay exact.
+ * Rebuilds and reloads read the database without holding the lock: pairs changed meanwhile are
+ * noted, loaded again, and the fresh sketches are swapped in under the write lock.
+ */
+@Service
+public class PriceAnalyticsService implements ProductChangeListener {
+
+    public static final String GROUP_BY_BRAND = "brand";
+    public static final String GROUP_BY_RETAILER = "retailer";
+    public static final String GROUP_BY_BRAND_RETAILER = "brand-retailer";
+
+    private static final int MAX_HISTOGRAM_BUCKETS = 100;
+    private static final int PRICE_POINT_PAGE_SIZE = 5000;
+    private static final int CATCH_UP_ROUNDS = 3;
+
+    private final ProductRepository productRepository;
+    private final DimensionDictionary dimensionDictionary;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // One rebuild or reload at a time, so a single set of changed pairs is enough
+    private final Object reloadMonitor = new Object();
+    private volatile Map<PriceGroup, PriceSketch> sketches;
+    // Pairs changed while a rebuild or reload reads the database; null when none is running
+    private volatile Set<PriceGroup> changedDuringReload;
+    private volatile long invalidations;
+
+    @Autowired
+    public PriceAnalyticsService(ProductRepository productRepository, DimensionDictionary dimensionDictionary) {
+        this.productRepository = productRepository;
+        this.dimensionDictionary = dimensionDictionary;
+    }
+
+    /**
+     * Run a catalog write and the productAdded/productRemoved calls for it. Writes share the lock
+     * with each other and with reads; only the swap at the end of a rebuild or reload waits for
+     * them, so no committed change whose adjustment is still to come is swapped over.
+     */
+    public <T> T write(Supplier<T> write) {
+        lock.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Record the price of a product that was inserted or updated
+     */
+    public void productAdded(Product product) {
+        if (product != null) {
+            adjust(product.getBrandId(), product.getRetailerId(), product.getPrice(), true);
+        }
+    }
+
+    /**
+     * Forget the price of a product that was deleted or is about to be replaced
+     */
+    public void productRemoved(Product product) {
+        if (product != null) {
+            adjust(product.getBrandId(), product.getRetailerId(), product.getPrice(), false);
+        }
+    }
+
+    /**
+     * Move a price changed on another instance from its old group to its new one
+     */
+    @Override
+    public void onRemoteChange(ProductChangeDto change) {
+        adjust(change.getPreviousBrandId(), change.getPreviousRetailerId(), change.getPreviousPrice(), false);
+        adjust(change.getBrandId(), change.getRetailerId(), change.getPrice(), true);
+    }
+
+    /**
+     * Rebuild the groups the change moved a price out of and into
+     */
+    @Override
+    public void reload(ProductChangeDto change) {
+        Set<PriceGroup> groups = new HashSet<>();
+        if (change.getPreviousPrice() != null) {
+            groups.add(new PriceGroup(change.getPreviousBrandId(), change.getPreviousRetailerId()));
+        }
+        if (change.getPrice() != null) {
+            groups.add(new PriceGroup(change.getBrandId(), change.getRetailerId()));
+        }
+        reload(groups);
+    }
+
+    @Override
+    public void resync() {
+        invalidate();
+    }
+
+    /**
+     * Get price statistics grouped by brand, retailer or brand-retailer, largest groups first
+     */
+    public List<PriceStatisticsDto> getPriceStatistics(String groupBy, int histogramBuckets) {
+        Function<PriceGroup, PriceGroup> grouping = grouping(groupBy);
+        if (histogramBuckets < 0 || histogramBuckets > MAX_HISTOGRAM_BUCKETS) {
+            throw new IllegalArgumentException("Histogram buckets must be between 0 and " + MAX_HISTOGRAM_BUCKETS);
+        }
+
+        Map<PriceGroup, PriceSketch> loaded = loadedSketches();
+        Map<PriceGroup, PriceSketch> rolledUp = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Map<PriceGroup, PriceSketch> current = sketches != null ? sketches : loaded;
+            for (Map.Entry<PriceGroup, PriceSketch> entry : current.entrySet()) {
+                PriceGroup target = grouping.apply(entry.getKey());
+                if (target != null && !entry.getValue().isEmpty()) {
+                    rolledUp.computeIfAbsent(target, key -> new PriceSketch()).merge(entry.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return rolledUp.entrySet().stream()
+                .map(entry -> toDto(entry.getKey(), entry.getValue(), histogramBuckets))
+                .sorted(Comparator.comparing(PriceStatisticsDto::getCount).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuild every sketch from the catalog. The product table is read in pages of consecutive
+     * product keys; with parallel set, the key range is split into one slice per processor and
+     * the slices are read concurrently on the common fork-join pool into partial sketches that
+     * are then merged. Writes carry on meanwhile. Returns the number of products read.
+     */
+    public long recompute(boolean parallel) {
+        return rebuild(parallel);
+    }
+
+    /**
+     * Drop all sketches so the next read rebuilds them from the catalog
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            sketches = null;
+            invalidations++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long rebuild(boolean parallel) {
+        synchronized (reloadMonitor) {
+            long invalidationsBefore = invalidations;
+            changedDuringReload = ConcurrentHashMap.newKeySet();
+            try {
+                Scan scan = scan(parallel);
+                Map<PriceGroup, PriceSketch> rebuilt = new ConcurrentHashMap<>(scan.sketches());
+                catchUp(rebuilt);
+                lock.writeLock().lock();
+                try {
+                    reloadChanged(rebuilt);
+                    // Invalidated meanwhile (missed remote changes); the next read rebuilds again
+                    if (invalidations == invalidationsBefore) {
+                        sketches = rebuilt;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return scan.rows();
+            } finally {
+                changedDuringReload = null;
+            }
+        }
+    }
+
+    /**
+     * Reload the sketches of the given pairs from the catalog
+     */
+    void reload(Collection<PriceGroup> groups) {
+        if (sketches == null || groups.isEmpty()) {
+            return;
+        }
+        synchronized (reloadMonitor) {
+            changedDuringReload = ConcurrentHashMap.newKeySet();
+            try {
+                Map<PriceGroup, PriceSketch> reloaded = new HashMap<>();
+                groups.forEach(group -> reloaded.put(group, loadGroup(group)));
+                catchUp(reloaded);
+                lock.writeLock().lock();
+                try {
+                    reloadChanged(reloaded);
+                    if (sketches != null) {
+                        sketches.putAll(reloaded);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                changedDuringReload = null;
+            }
+        }
+    }
+
+    private Scan scan(boolean parallel) {
+        List<Object[]> range = productRepository.getProductKeyRange();
+        Object[] bounds = range.isEmpty() ? null : range.get(0);
+        if (bounds == null || bounds[0] == null) {
+            return new Scan(new HashMap<>(), 0);
+        }
+        long firstKey = ((Number) bounds[0]).longValue();
+        long lastKey = ((Number) bounds[1]).longValue();
+        int slices = parallel ? Runtime.getRuntime().availableProcessors() : 1;
+        long width = Math.max(1, (lastKey - firstKey) / slices + 1);
+        IntStream sliceIndexes = IntStream.range(0, slices);
+        return (parallel ? sliceIndexes.parallel() : sliceIndexes)
+                .mapToObj(slice -> scanSlice(firstKey - 1 + slice * width, Math.min(lastKey, firstKey - 1 + (slice + 1) * width)))
+                .reduce(Scan::merge)
+                .orElseGet(() -> new Scan(new HashMap<>(), 0));
+    }
+
+    private Scan scanSlice(long afterKey, long toKey) {
+        Map<PriceGroup, PriceSketch> partial = new HashMap<>();
+        long rows = 0;
+        long lastKey = afterKey;
+        while (lastKey < toKey) {
+            List<Object[]> page = productRepository.findPricePointsAfter(lastKey, toKey,
+                    PageRequest.of(0, PRICE_POINT_PAGE_SIZE));
+            for (Object[] row : page) {
+                partial.computeIfAbsent(new PriceGroup((Integer) row[1], (Integer) row[2]), key -> new PriceSketch())
+                        .add(PriceSketch.toCents((BigDecimal) row[3]));
+            }
+            rows += page.size();
+            if (page.size() < PRICE_POINT_PAGE_SIZE) {
+                break;
+            }
+            lastKey = ((Number) page.get(page.size() - 1)[0]).longValue();
+        }
+        return new Scan(partial, rows);
+    }
+
+    /**
+     * Load again, without the lock, the pairs changed while the fresh sketches were being read.
+     * A pair is taken off the set before it is loaded, so a change landing during its load marks it again.
+     */
+    private void catchUp(Map<PriceGroup, PriceSketch> fresh) {
+        for (int round = 0; round < CATCH_UP_ROUNDS && !changedDuringReload.isEmpty(); round++) {
+            for (PriceGroup group : List.copyOf(changedDuringReload)) {
+                changedDuringReload.remove(group);
+                fresh.put(group, loadGroup(group));
+            }
+        }
+    }
+
+    /**
+     * Load the pairs still marked as changed; called under the write lock, where no write is in flight
+     */
+    private void reloadChanged(Map<PriceGroup, PriceSketch> fresh) {
+        for (PriceGroup group : changedDuringReload) {
+            fresh.put(group, loadGroup(group));
+        }
+    }
+
+    private PriceSketch loadGroup(PriceGroup group) {
+        PriceSketch sketch = new PriceSketch();
+        for (BigDecimal price : productRepository.getGroupPrices(group.brandId(), group.retailerId())) {
+            sketch.add(PriceSketch.toCents(price));
+        }
+        return sketch;
+    }
+
+    private Map<PriceGroup, PriceSketch> loadedSketches() {
+        Map<PriceGroup, PriceSketch> current = sketches;
+        if (current == null) {
+            rebuild(true);
+        } else {
+            reload(inexactGroups(current));
+        }
+        current = sketches;
+        return current != null ? current : Map.of();
+    }
+
+    private static List<PriceGroup> inexactGroups(Map<PriceGroup, PriceSketch> sketches) {
+        List<PriceGroup> inexact = new ArrayList<>();
+        sketches.forEach((group, sketch) -> {
+            if (!sketch.isRangeExact()) {
+                inexact.add(group);
+            }
+        });
+        return inexact;
+    }
+
+    private void adjust(Integer brandId, Integer retailerId, BigDecimal price, boolean add) {
+        if (price == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            PriceGroup group = new PriceGroup(brandId, retailerId);
+            Set<PriceGroup> changed = changedDuringReload;
+            if (changed != null) {
+                changed.add(group);
+            }
+            Map<PriceGroup, PriceSketch> current = sketches;
+            if (current == null) {
+                // Not built yet; the first read loads the committed state from the database
+                return;
+            }
+            long cents = PriceSketch.toCents(price);
+            PriceSketch sketch = current.computeIfAbsent(group, key -> new PriceSketch());
+            if (add) {
+                sketch.add(cents);
+            } else {
+                sketch.remove(cents);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Function<PriceGroup, PriceGroup> grouping(String groupBy) {
+        String value = groupBy == null ? GROUP_BY_BRAND : groupBy;
+        switch (value) {
+            case GROUP_BY_BRAND:
+                return group -> group.brandId() == null ? null : new PriceGroup(group.brandId(), null);
+            case GROUP_BY_RETAILER:
+                return group -> group.retailerId() == null ? null : new PriceGroup(null, group.retailerId());
+            case GROUP_BY_BRAND_RETAILER:
+                return group -> group.brandId() == null && group.retailerId() == null ? null : group;
+            default:
+                throw new IllegalArgumentException("Unsupported groupBy: " + groupBy);
+        }
+    }
+
+    private PriceStatisticsDto toDto(PriceGroup group, PriceSketch sketch, int histogramBuckets) {
+        PriceStatisticsDto dto = new PriceStatisticsDto();
+        dto.setBrand(dimensionDictionary.getBrandName(group.brandId()));
+        dto.setRetailer(dimensionDictionary.getRetailerName(group.retailerId()));
+        dto.setCount(sketch.getCount());
+        dto.setMinPrice(PriceSketch.fromCents(sketch.getMinCents()));
+        dto.setMaxPrice(PriceSketch.fromCents(sketch.getMaxCents()));
+        dto.setAvgPrice(new BigDecimal(sketch.getSumCents())
+                .divide(BigDecimal.valueOf(sketch.getCount()), 0, RoundingMode.HALF_UP)
+                .movePointLeft(2));
+        dto.setP50Price(PriceSketch.fromCents(sketch.quantile(0.50)));
+        dto.setP90Price(PriceSketch.fromCents(sketch.quantile(0.90)));
+        dto.setP99Price(PriceSketch.fromCents(sketch.quantile(0.99)));
+        dto.setHistogram(histogram(sketch, histogramBuckets));
+        return dto;
+    }
+
+    private static List<PriceHistogramBucketDto> histogram(PriceSketch sketch, int buckets) {
+        return sketch.histogram(buckets).stream()
+                .map(bin -> new PriceHistogramBucketDto(PriceSketch.fromCents(bin.lowerCents()),
+                        PriceSketch.fromCents(bin.upperCents()), bin.count()))
+                .collect(Collectors.toList());
+    }
+
+    record PriceGroup(Integer brandId, Integer retailerId) {}
+
+    private record Scan(Map<PriceGroup, PriceSketch> sketches, long rows) {
+        Scan merge(Scan other) {
+            other.sketches().forEach((group, sketch) ->
+                    sketches.computeIfAbsent(group, key -> new PriceSketch()).merge(sketch));
+            return new Scan(sketches, rows + other.rows());
+        }
+    }
+}
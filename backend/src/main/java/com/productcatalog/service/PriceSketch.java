@@ -0,0 +1,346 @@
+package com.productcatalog.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mergeable quantile sketch over prices held as whole cents. Values are counted in
+ * logarithmic buckets so any reported quantile is within 1% of the true value, while
+ * count, sum and therefore the average stay exact. Two sketches built over disjoint sets
+ * of products can be merged into the sketch of their union, which is what allows
+ * per-retailer sketches to be rolled up per brand and partial sketches to be built in parallel.
+ * The lowest and highest value are tracked exactly; removing the last copy of either leaves
+ * the sketch unable to tell the new one (isRangeExact() turns false) until it is rebuilt.
+ * The sum spills into a BigInteger once it no longer fits in a long.
+ */
+public class PriceSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long zeroCount;
+    private long[] counts = new long[0];
+    private int offset;
+    private long count;
+    private long sumCents;
+    // Part of the sum that no longer fitted in sumCents
+    private BigInteger sumOverflowCents = BigInteger.ZERO;
+    private long minCents;
+    private long maxCents;
+    private long minCopies;
+    private long maxCopies;
+    private boolean rangeExact = true;
+
+    /**
+     * Convert a price to whole cents, clamping values that do not fit in a long
+     */
+    public static long toCents(BigDecimal price) {
+        try {
+            return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException e) {
+            return price.signum() < 0 ? 0L : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Convert whole cents back to a price
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public synchronized void add(long cents) {
+        adjust(cents, 1);
+    }
+
+    /**
+     * Remove a value previously added. Removing a value that was never added is ignored.
+     */
+    public synchronized void remove(long cents) {
+        adjust(cents, -1);
+    }
+
+    /**
+     * Add every value counted by the other sketch into this one
+     */
+    public void merge(PriceSketch other) {
+        PriceSketch snapshot = other.copy();
+        if (snapshot.count == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (count == 0) {
+                minCents = snapshot.minCents;
+                maxCents = snapshot.maxCents;
+                minCopies = snapshot.minCopies;
+                maxCopies = snapshot.maxCopies;
+                rangeExact = snapshot.rangeExact;
+            } else {
+                mergeRange(snapshot);
+            }
+            zeroCount += snapshot.zeroCount;
+            for (int i = 0; i < snapshot.counts.length; i++) {
+                if (snapshot.counts[i] > 0) {
+                    int index = snapshot.offset + i;
+                    ensureCapacity(index);
+                    counts[index - offset] += snapshot.counts[i];
+                }
+            }
+            count += snapshot.count;
+            addToSum(snapshot.sumCents);
+            sumOverflowCents = sumOverflowCents.add(snapshot.sumOverflowCents);
+        }
+    }
+
+    public synchronized PriceSketch copy() {
+        PriceSketch copy = new PriceSketch();
+        copy.zeroCount = zeroCount;
+        copy.counts = counts.clone();
+        copy.offset = offset;
+        copy.count = count;
+        copy.sumCents = sumCents;
+        copy.sumOverflowCents = sumOverflowCents;
+        copy.minCents = minCents;
+        copy.maxCents = maxCents;
+        copy.minCopies = minCopies;
+        copy.maxCopies = maxCopies;
+        copy.rangeExact = rangeExact;
+        return copy;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Exact sum of the values in cents
+     */
+    public synchronized BigInteger getSumCents() {
+        return sumOverflowCents.add(BigInteger.valueOf(sumCents));
+    }
+
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Whether getMinCents() and getMaxCents() are exact. False once the last copy of the lowest
+     * or highest value was removed, as the sketch only knows the bucket of the next one.
+     */
+    public synchronized boolean isRangeExact() {
+        return rangeExact;
+    }
+
+    /**
+     * Lowest value in cents (0 if empty); the bucket estimate when the range is not exact
+     */
+    public synchronized long getMinCents() {
+        return rangeExact || count == 0 ? minCents : quantile(0.0);
+    }
+
+    /**
+     * Highest value in cents (0 if empty); the bucket estimate when the range is not exact
+     */
+    public synchronized long getMaxCents() {
+        return rangeExact || count == 0 ? maxCents : quantile(1.0);
+    }
+
+    /**
+     * Value at the given quantile (0.0 - 1.0) in cents by nearest rank, or 0 if the sketch is
+     * empty. While the range is exact, ranks held by the lowest or highest value return it
+     * exactly and other results are kept within it.
+     */
+    public synchronized long quantile(double quantile) {
+        if (count == 0) {
+            return 0L;
+        }
+        // 1-based nearest rank; the epsilon keeps q * count from rounding up past a whole rank
+        double q = Math.min(Math.max(quantile, 0.0), 1.0);
+        long rank = Math.max(1L, Math.min(count, (long) Math.ceil(q * count - 1e-9)));
+        if (rangeExact) {
+            if (rank <= minCopies) {
+                return minCents;
+            }
+            if (rank > count - maxCopies) {
+                return maxCents;
+            }
+        }
+        long value = bucketValue(rank);
+        return rangeExact ? Math.min(Math.max(value, minCents), maxCents) : value;
+    }
+
+    /**
+     * Split the range between the lowest and highest value into equal-width bins and count the
+     * values falling in each. Values are placed by their bucket, so a value near a bin edge may
+     * be counted in the neighbouring bin.
+     */
+    public synchronized List<Bin> histogram(int bins) {
+        List<Bin> histogram = new ArrayList<>(Math.max(bins, 0));
+        if (bins <= 0) {
+            return histogram;
+        }
+        long min = getMinCents();
+        long max = getMaxCents();
+        long[] bounds = new long[bins + 1];
+        for (int i = 0; i < bins; i++) {
+            bounds[i] = min + Math.round((double) (max - min) * i / bins);
+        }
+        bounds[bins] = max;
+
+        long[] binCounts = new long[bins];
+        binCounts[0] += zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                binCounts[bin(bounds, representative(offset + i))] += counts[i];
+            }
+        }
+        for (int i = 0; i < bins; i++) {
+            histogram.add(new Bin(bounds[i], bounds[i + 1], binCounts[i]));
+        }
+        return histogram;
+    }
+
+    /**
+     * Histogram bin covering [lowerCents, upperCents), the last bin including its upper bound
+     */
+    public record Bin(long lowerCents, long upperCents, long count) {}
+
+    private void adjust(long cents, long delta) {
+        if (cents <= 0) {
+            if (delta < 0 && zeroCount == 0) {
+                return;
+            }
+            zeroCount += delta;
+        } else {
+            int index = bucketIndex(cents);
+            if (delta < 0 && (index < offset || index >= offset + counts.length || counts[index - offset] == 0)) {
+                return;
+            }
+            ensureCapacity(index);
+            counts[index - offset] += delta;
+        }
+        count += delta;
+        addToSum(delta * Math.max(cents, 0L));
+        if (delta > 0) {
+            rangeAdded(Math.max(cents, 0L));
+        } else {
+            rangeRemoved(Math.max(cents, 0L));
+        }
+    }
+
+    private void rangeAdded(long cents) {
+        if (count == 1) {
+            minCents = cents;
+            maxCents = cents;
+            minCopies = 1;
+            maxCopies = 1;
+            rangeExact = true;
+            return;
+        }
+        if (cents < minCents) {
+            minCents = cents;
+            minCopies = 1;
+        } else if (cents == minCents) {
+            minCopies++;
+        }
+        if (cents > maxCents) {
+            maxCents = cents;
+            maxCopies = 1;
+        } else if (cents == maxCents) {
+            maxCopies++;
+        }
+    }
+
+    private void rangeRemoved(long cents) {
+        if (count == 0) {
+            minCents = 0;
+            maxCents = 0;
+            minCopies = 0;
+            maxCopies = 0;
+            rangeExact = true;
+            return;
+        }
+        if (cents == minCents && --minCopies == 0) {
+            rangeExact = false;
+        }
+        if (cents == maxCents && --maxCopies == 0) {
+            rangeExact = false;
+        }
+    }
+
+    private void mergeRange(PriceSketch other) {
+        rangeExact &= other.rangeExact;
+        if (other.minCents < minCents) {
+            minCents = other.minCents;
+            minCopies = other.minCopies;
+        } else if (other.minCents == minCents) {
+            minCopies += other.minCopies;
+        }
+        if (other.maxCents > maxCents) {
+            maxCents = other.maxCents;
+            maxCopies = other.maxCopies;
+        } else if (other.maxCents == maxCents) {
+            maxCopies += other.maxCopies;
+        }
+    }
+
+    private long bucketValue(long rank) {
+        long cumulative = zeroCount;
+        if (rank <= cumulative) {
+            return 0L;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (rank <= cumulative) {
+                return representative(offset + i);
+            }
+        }
+        return representative(offset + counts.length - 1);
+    }
+
+    private void addToSum(long cents) {
+        try {
+            sumCents = Math.addExact(sumCents, cents);
+        } catch (ArithmeticException e) {
+            sumOverflowCents = sumOverflowCents.add(BigInteger.valueOf(sumCents));
+            sumCents = cents;
+        }
+    }
+
+    private static int bin(long[] bounds, long cents) {
+        int bins = bounds.length - 1;
+        int bin = 0;
+        while (bin < bins - 1 && cents >= bounds[bin + 1]) {
+            bin++;
+        }
+        return bin;
+    }
+
+    private void ensureCapacity(int index) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            offset = index;
+        } else if (index < offset) {
+            long[] grown = new long[counts.length + (offset - index)];
+            System.arraycopy(counts, 0, grown, offset - index, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, index - offset + 1);
+        }
+    }
+
+    private static int bucketIndex(long cents) {
+        return (int) Math.ceil(Math.log(cents) / LOG_GAMMA);
+    }
+
+    private static long representative(int index) {
+        return Math.round(2 * Math.pow(GAMMA, index) / (GAMMA + 1));
+    }
+}
@@ -0,0 +1,389 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.PriceUpdateDto;
+import com.productcatalog.dto.PriceUpdateResultDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind path for bulk price changes. Updates are held in a bounded concurrent map keyed
+ * by product key, so repeated changes to the same product collapse into the latest price, and are
+ * flushed through ProductService.updatePrices in batches when the batch size is reached or the
+ * flush interval elapses. Each caller receives the outcome of the flush that wrote its price.
+ * A request is queued as a whole or rejected as a whole when the queue cannot take it.
+ * When a batch fails, updates that have not been superseded by a newer price are re-queued with
+ * exponential backoff, up to max-retries times, and only then reported FAILED.
+ * Queued updates only become durable once flushed; callers that need that guarantee wait for it.
+ * When disabled, submitted batches are written immediately on the caller's thread.
+ */
+@Component
+public class PriceUpdateQueue {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_UPDATED = "UPDATED";
+    public static final String STATUS_NOT_FOUND = "NOT_FOUND";
+    public static final String STATUS_REJECTED = "REJECTED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final Logger log = LoggerFactory.getLogger(PriceUpdateQueue.class);
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private final ProductService productService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long ackTimeoutMillis;
+    private final int maxRetries;
+
+    private final ConcurrentHashMap<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+
+    private final Counter queuedCounter;
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    @Autowired
+    public PriceUpdateQueue(ProductService productService, MeterRegistry meterRegistry,
+                            @Value("${productcatalog.write-behind.enabled:false}") boolean enabled,
+                            @Value("${productcatalog.write-behind.capacity:10000}") int capacity,
+                            @Value("${productcatalog.write-behind.batch-size:500}") int batchSize,
+                            @Value("${productcatalog.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+                            @Value("${productcatalog.write-behind.ack-timeout-ms:5000}") long ackTimeoutMillis,
+                            @Value("${productcatalog.write-behind.max-retries:3}") int maxRetries) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.maxRetries = maxRetries;
+
+        this.queuedCounter = Counter.builder("productcatalog.write-behind.updates")
+                .description("Price updates added to the queue")
+                .tag("outcome", "queued")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("productcatalog.write-behind.updates")
+                .description("Price updates that replaced a queued update for the same product")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("productcatalog.write-behind.updates")
+                .description("Price updates rejected because the queue was full")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("productcatalog.write-behind.updates")
+                .description("Price updates re-queued after their batch failed to write")
+                .tag("outcome", "retried")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("productcatalog.write-behind.updates")
+                .description("Price updates dropped after their last write attempt failed")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("productcatalog.write-behind.flush")
+                .description("Time to write one batch of price updates")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("productcatalog.write-behind.batch.size")
+                .description("Price updates written per batch")
+                .register(meterRegistry);
+        Gauge.builder("productcatalog.write-behind.queue.depth", depth, AtomicInteger::get)
+                .description("Products with a price update waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "price-update-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop the flusher and write whatever is still queued, including updates waiting to be
+     * retried. Updates that fail this last write are reported FAILED.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+            flush(true);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Submit price updates. With waitForFlush the call returns once the updates are committed
+     * (or the acknowledgement timeout passes); otherwise it returns as soon as they are queued.
+     * If the queue has no room for every update in the request, none is queued and all are
+     * reported REJECTED.
+     */
+    public List<PriceUpdateResultDto> submit(List<PriceUpdateDto> updates, boolean waitForFlush) {
+        if (!enabled) {
+            return writeNow(updates);
+        }
+
+        // Reserve a slot per product up front; products that already have a queued update give theirs back
+        Set<Long> productKeys = new HashSet<>();
+        updates.forEach(update -> productKeys.add(update.getProductKey()));
+        if (depth.addAndGet(productKeys.size()) > capacity) {
+            depth.addAndGet(-productKeys.size());
+            rejectedCounter.increment(updates.size());
+            List<PriceUpdateResultDto> rejected = new ArrayList<>(updates.size());
+            updates.forEach(update -> rejected.add(new PriceUpdateResultDto(update.getProductKey(), STATUS_REJECTED)));
+            return rejected;
+        }
+        List<CompletableFuture<String>> outcomes = new ArrayList<>(updates.size());
+        Set<Long> offered = new HashSet<>();
+        for (PriceUpdateDto update : updates) {
+            boolean reserved = offered.add(update.getProductKey());
+            outcomes.add(offer(update.getProductKey(), update.getPrice(), reserved));
+        }
+        if (depth.get() >= batchSize) {
+            requestFlush();
+        }
+        if (waitForFlush) {
+            awaitAll(outcomes);
+        }
+
+        List<PriceUpdateResultDto> results = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            results.add(new PriceUpdateResultDto(updates.get(i).getProductKey(),
+                    outcomes.get(i).getNow(STATUS_QUEUED)));
+        }
+        return results;
+    }
+
+    /**
+     * Number of products with a price update waiting to be written
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Write everything currently queued, one batch at a time. Updates still backing off after
+     * a failed write are left for a later flush.
+     */
+    public void flush() {
+        flush(false);
+    }
+
+    private void flush(boolean last) {
+        // Updates re-queued by this flush become due only after it started, so it never retries them itself
+        long dueBy = last ? Long.MAX_VALUE : System.currentTimeMillis();
+        while (true) {
+            Map<Long, PendingUpdate> batch = drain(dueBy);
+            if (batch.isEmpty()) {
+                return;
+            }
+            write(batch, !last);
+        }
+    }
+
+    /**
+     * Queue one update. The first update of each product in a request holds a slot reserved by
+     * submit, which is released when it coalesces into an update that is already queued. A new
+     * price replacing one that is waiting to be retried starts with a clean retry state.
+     */
+    private CompletableFuture<String> offer(Long productKey, BigDecimal price, boolean reserved) {
+        PendingUpdate queued = pending.compute(productKey, (key, existing) -> {
+            if (existing != null) {
+                if (reserved) {
+                    depth.decrementAndGet();
+                }
+                coalescedCounter.increment();
+                if (existing.price.compareTo(price) != 0) {
+                    return new PendingUpdate(price, existing.outcome, 0, 0);
+                }
+                return new PendingUpdate(price, existing.outcome, existing.attempts, existing.notBeforeMillis);
+            }
+            queuedCounter.increment();
+            return new PendingUpdate(price, new CompletableFuture<>(), 0, 0);
+        });
+        return queued.outcome;
+    }
+
+    private Map<Long, PendingUpdate> drain(long dueBy) {
+        Map<Long, PendingUpdate> batch = new LinkedHashMap<>();
+        Iterator<Map.Entry<Long, PendingUpdate>> entries = pending.entrySet().iterator();
+        while (entries.hasNext() && batch.size() < batchSize) {
+            Map.Entry<Long, PendingUpdate> entry = entries.next();
+            PendingUpdate update = entry.getValue();
+            if (update.notBeforeMillis > dueBy) {
+                continue;
+            }
+            if (pending.remove(entry.getKey(), update)) {
+                depth.decrementAndGet();
+                batch.put(entry.getKey(), update);
+            }
+        }
+        return batch;
+    }
+
+    private void write(Map<Long, PendingUpdate> batch, boolean retryOnFailure) {
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        batch.forEach((key, update) -> prices.put(key, update.price));
+
+        Timer.Sample sample = Timer.start();
+        try {
+            Set<Long> updated = productService.updatePrices(prices);
+            batch.forEach((key, update) ->
+                    update.outcome.complete(updated.contains(key) ? STATUS_UPDATED : STATUS_NOT_FOUND));
+        } catch (RuntimeException e) {
+            requeueOrFail(batch, retryOnFailure, e);
+        } finally {
+            sample.stop(flushTimer);
+            batchSizeSummary.record(batch.size());
+        }
+    }
+
+    /**
+     * Put the updates of a failed batch back in the queue. An update whose product got a newer
+     * price in the meantime is not retried: the newer price is written instead and its outcome
+     * is reported to both callers. Updates out of retries are completed as FAILED.
+     */
+    private void requeueOrFail(Map<Long, PendingUpdate> batch, boolean retryOnFailure, RuntimeException cause) {
+        int requeued = 0;
+        int superseded = 0;
+        int failed = 0;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, PendingUpdate> entry : batch.entrySet()) {
+            PendingUpdate update = entry.getValue();
+            if (!retryOnFailure || update.attempts >= maxRetries) {
+                update.outcome.complete(STATUS_FAILED);
+                failed++;
+                continue;
+            }
+            int attempts = update.attempts + 1;
+            PendingUpdate retry = new PendingUpdate(update.price, update.outcome, attempts, now + retryDelayMillis(attempts));
+            PendingUpdate queued = pending.compute(entry.getKey(), (key, newer) -> {
+                if (newer != null) {
+                    return newer;
+                }
+                depth.incrementAndGet();
+                return retry;
+            });
+            if (queued == retry) {
+                requeued++;
+            } else {
+                queued.outcome.whenComplete((status, error) -> update.outcome.complete(status));
+                superseded++;
+            }
+        }
+        retriedCounter.increment(requeued);
+        failedCounter.increment(failed);
+        if (failed > 0) {
+            log.error("Failed to write batch of {} price updates; {} dropped as FAILED, {} re-queued, {} superseded",
+                    batch.size(), failed, requeued, superseded, cause);
+        } else {
+            log.warn("Failed to write batch of {} price updates; {} re-queued, {} superseded",
+                    batch.size(), requeued, superseded, cause);
+        }
+    }
+
+    private long retryDelayMillis(int attempts) {
+        return Math.max(1, Math.min(flushIntervalMillis << Math.min(attempts - 1, 20), MAX_RETRY_DELAY_MILLIS));
+    }
+
+    private List<PriceUpdateResultDto> writeNow(List<PriceUpdateDto> updates) {
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        updates.forEach(update -> prices.put(update.getProductKey(), update.getPrice()));
+        Set<Long> updated = productService.updatePrices(prices);
+
+        List<PriceUpdateResultDto> results = new ArrayList<>(updates.size());
+        for (PriceUpdateDto update : updates) {
+            results.add(new PriceUpdateResultDto(update.getProductKey(),
+                    updated.contains(update.getProductKey()) ? STATUS_UPDATED : STATUS_NOT_FOUND));
+        }
+        return results;
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushSafely);
+            } catch (RuntimeException e) {
+                // Shutting down; stop() flushes what is left
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void flushSafely() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Price update flush failed", e);
+        }
+    }
+
+    private void awaitAll(List<CompletableFuture<String>> outcomes) {
+        CompletableFuture<?>[] waiting = outcomes.toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(waiting).get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Report whatever has been written so far; the rest stays QUEUED
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PendingUpdate {
+        private final BigDecimal price;
+        private final CompletableFuture<String> outcome;
+        private final int attempts;
+        private final long notBeforeMillis;
+
+        private PendingUpdate(BigDecimal price, CompletableFuture<String> outcome, int attempts, long notBeforeMillis) {
+            this.price = price;
+            this.outcome = outcome;
+            this.attempts = attempts;
+            this.notBeforeMillis = notBeforeMillis;
+        }
+    }
+}
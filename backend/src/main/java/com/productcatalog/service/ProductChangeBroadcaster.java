@@ -0,0 +1,441 @@
+package com.productcatalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcatalog.dto.ProductChangeDto;
+import com.productcatalog.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the per-instance caches of all backend instances coherent. ProductService reports each
+ * write here from inside its transaction; the change is stamped with this instance's id and
+ * next sequence number and handed to the CacheInvalidationTransport in that transaction, so it
+ * is broadcast and retained exactly when the write commits. Changes received from other
+ * instances are applied to every ProductChangeListener. Concurrent writes commit in a different
+ * order than they took their numbers, so a gap only means a lost message once the sender's
+ * periodic heartbeat, which only covers writes that have completed, has passed it: the missed
+ * changes are then replayed from the transport's retained history, so only the products they
+ * touched are reloaded. Only when they are no longer retained do the listeners drop everything,
+ * at most once per min-resync-interval-ms.
+ */
+@Service
+public class ProductChangeBroadcaster {
+
+    public static final String TYPE_CREATED = "CREATED";
+    public static final String TYPE_UPDATED = "UPDATED";
+    public static final String TYPE_DELETED = "DELETED";
+    public static final String TYPE_HEARTBEAT = "HEARTBEAT";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeBroadcaster.class);
+
+    private final CacheInvalidationTransport transport;
+    private final List<ProductChangeListener> listeners;
+    private final ObjectMapper objectMapper;
+    private final long minResyncIntervalMillis;
+    private final long peerTimeoutMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final AtomicLong lastResyncAt = new AtomicLong();
+    private final AtomicBoolean resyncDeferred = new AtomicBoolean();
+    private volatile long lastReceivedAt = System.currentTimeMillis();
+    private volatile boolean subscribed;
+    // First version of every batch whose transaction has not completed yet; guards version too
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long version;
+
+    private final Counter publishedCounter;
+    private final Counter appliedCounter;
+    private final Counter replayedCounter;
+    private final Counter publishFailedCounter;
+    private final Counter resyncCounter;
+
+    @Autowired
+    public ProductChangeBroadcaster(CacheInvalidationTransport transport, List<ProductChangeListener> listeners,
+                                    ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${productcatalog.cache-sync.min-resync-interval-ms:60000}") long minResyncIntervalMillis,
+                                    @Value("${productcatalog.cache-sync.peer-timeout-ms:60000}") long peerTimeoutMillis) {
+        this.transport = transport;
+        this.listeners = listeners;
+        this.objectMapper = objectMapper;
+        this.minResyncIntervalMillis = minResyncIntervalMillis;
+        this.peerTimeoutMillis = peerTimeoutMillis;
+
+        this.publishedCounter = Counter.builder("productcatalog.cache-sync.changes")
+                .description("Product changes broadcast to other instances")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.appliedCounter = Counter.builder("productcatalog.cache-sync.changes")
+                .description("Product changes from other instances applied to local caches")
+                .tag("outcome", "applied")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("productcatalog.cache-sync.changes")
+                .description("Missed product changes replayed from the transport's history")
+                .tag("outcome", "replayed")
+                .register(meterRegistry);
+        this.publishFailedCounter = Counter.builder("productcatalog.cache-sync.changes")
+                .description("Product changes and heartbeats that could not be broadcast")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.resyncCounter = Counter.builder("productcatalog.cache-sync.resyncs")
+                .description("Full local cache resyncs after changes were lost for good")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        transport.start(this::receive, this::reset);
+    }
+
+    @PreDestroy
+    public void stop() {
+        transport.stop();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Broadcast an insert (previous is null) or update as part of the current transaction
+     */
+    public void productSaved(Product previous, Product saved) {
+        publish(List.of(change(previous == null ? TYPE_CREATED : TYPE_UPDATED, previous, saved)));
+    }
+
+    /**
+     * Broadcast a delete as part of the current transaction
+     */
+    public void productDeleted(Product previous) {
+        publish(List.of(change(TYPE_DELETED, previous, null)));
+    }
+
+    /**
+     * Broadcast the products changed by one batch as part of the current transaction, as a
+     * single transport call
+     */
+    public void productsUpdated(List<Product> previous, List<Product> updated) {
+        List<ProductChangeDto> changes = new ArrayList<>(updated.size());
+        for (int i = 0; i < updated.size(); i++) {
+            changes.add(change(TYPE_UPDATED, previous.get(i), updated.get(i)));
+        }
+        publish(changes);
+    }
+
+    /**
+     * Announce the highest version below every write still in flight. All changes up to it
+     * have committed (or rolled back) before the heartbeat, so peers that have not received
+     * one of them by now missed it. Also forgets instances that went quiet and runs a full
+     * resync that was deferred by the rate limit.
+     */
+    @Scheduled(fixedDelayString = "${productcatalog.cache-sync.heartbeat-interval-ms:10000}",
+               initialDelayString = "${productcatalog.cache-sync.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        ProductChangeDto heartbeat = new ProductChangeDto();
+        heartbeat.setType(TYPE_HEARTBEAT);
+        heartbeat.setNodeId(nodeId);
+        synchronized (inFlight) {
+            heartbeat.setVersion(inFlight.isEmpty() ? version : inFlight.first() - 1);
+        }
+        try {
+            transport.publish(List.of(new CacheInvalidationTransport.Message(nodeId, heartbeat.getVersion(), false,
+                    objectMapper.writeValueAsString(heartbeat))));
+            publishedCounter.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            publishFailedCounter.increment();
+            log.warn("Failed to send cache sync heartbeat", e);
+        }
+        evictQuietPeers();
+        if (resyncDeferred.get()) {
+            resync();
+        }
+    }
+
+    /**
+     * Stamp changes and hand them to the transport in the caller's transaction, so they are
+     * sent and retained exactly when it commits; a failure fails the write. Only taking the
+     * numbers is serialized. The batch stays in flight, holding back the heartbeat, until the
+     * transaction completes.
+     */
+    private void publish(List<ProductChangeDto> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long first;
+        synchronized (inFlight) {
+            first = version + 1;
+            version += changes.size();
+            inFlight.add(first);
+        }
+        boolean completesWithTransaction = false;
+        try {
+            List<CacheInvalidationTransport.Message> messages = new ArrayList<>(changes.size());
+            for (int i = 0; i < changes.size(); i++) {
+                ProductChangeDto change = changes.get(i);
+                change.setNodeId(nodeId);
+                change.setVersion(first + i);
+                messages.add(new CacheInvalidationTransport.Message(nodeId, change.getVersion(), true,
+                        objectMapper.writeValueAsString(change)));
+            }
+            transport.publish(messages);
+            publishedCounter.increment(messages.size());
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        completed(first);
+                    }
+                });
+                completesWithTransaction = true;
+            }
+        } catch (JsonProcessingException e) {
+            publishFailedCounter.increment(changes.size());
+            throw new IllegalStateException("Could not serialize product change", e);
+        } catch (RuntimeException e) {
+            publishFailedCounter.increment(changes.size());
+            throw e;
+        } finally {
+            if (!completesWithTransaction) {
+                completed(first);
+            }
+        }
+    }
+
+    private void completed(long firstVersion) {
+        synchronized (inFlight) {
+            inFlight.remove(firstVersion);
+        }
+    }
+
+    /**
+     * Handle a message from the transport. Messages arrive on the transport's thread, one at a time.
+     */
+    void receive(String message) {
+        ProductChangeDto change;
+        try {
+            change = objectMapper.readValue(message, ProductChangeDto.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed product change message: {}", message, e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastReceivedAt = now;
+        if (nodeId.equals(change.getNodeId())) {
+            return;
+        }
+
+        Peer peer = peers.computeIfAbsent(change.getNodeId(), id -> new Peer());
+        peer.seenAt = now;
+        if (TYPE_HEARTBEAT.equals(change.getType())) {
+            settle(change.getNodeId(), peer, change.getVersion());
+        } else if (peer.accept(change.getVersion())) {
+            apply(change);
+        }
+    }
+
+    /**
+     * The transport (re)subscribed and may have missed messages. Replay what known instances
+     * sent since, and everything from instances that started meanwhile; changes still
+     * committing are delivered later, and the next heartbeat settles whatever is left. The
+     * first subscription drops local state instead, as nothing was tracked before it.
+     */
+    void reset() {
+        Map<String, CacheInvalidationTransport.Retained> retained = transport.retainedVersions();
+        boolean first = !subscribed;
+        subscribed = true;
+        long now = System.currentTimeMillis();
+        retained.forEach((peerId, versions) -> {
+            if (nodeId.equals(peerId)) {
+                return;
+            }
+            Peer peer = peers.get(peerId);
+            if (peer == null) {
+                peer = new Peer();
+                peer.seenAt = now;
+                peers.put(peerId, peer);
+                if (first || versions.firstVersion() > 1) {
+                    // Already running before this instance loaded its caches, or forgotten after going quiet
+                    peer.seen.add(versions.lastVersion());
+                    return;
+                }
+                peer.settled = 0L;
+            }
+            long after = peer.settled != null ? peer.settled : peer.seen.first();
+            if (versions.lastVersion() > after) {
+                replay(peerId, peer, after, versions.lastVersion());
+            }
+        });
+        if (first) {
+            resync();
+        }
+    }
+
+    /**
+     * A heartbeat follows every change its sender made up to its version. Replay the ones still
+     * missing from the transport's retained history, and resync when some are not retained
+     * (lost for good, or taken by a write that rolled back).
+     */
+    private void settle(String peerId, Peer peer, long upToVersion) {
+        Long after = peer.settled;
+        if (after == null) {
+            // First heartbeat; versions below the first change received predate tracking
+            after = peer.seen.isEmpty() ? upToVersion : Math.min(peer.seen.first(), upToVersion);
+        }
+        if (upToVersion > after && peer.missing(after, upToVersion) > 0) {
+            replay(peerId, peer, after, upToVersion);
+            long missing = peer.missing(after, upToVersion);
+            if (missing > 0) {
+                log.warn("{} product changes from {} up to version {} are no longer available, resyncing",
+                        missing, peerId, upToVersion);
+                resync();
+            }
+        }
+        peer.settle(Math.max(after, upToVersion));
+    }
+
+    /**
+     * Apply the retained changes of one instance with afterVersion < version <= upToVersion
+     * that were not applied yet, oldest first
+     */
+    private void replay(String peerId, Peer peer, long afterVersion, long upToVersion) {
+        List<ProductChangeDto> missed = new ArrayList<>();
+        try {
+            for (String message : transport.replay(peerId, afterVersion, upToVersion)) {
+                ProductChangeDto change = objectMapper.readValue(message, ProductChangeDto.class);
+                if (change.getVersion() > afterVersion && change.getVersion() <= upToVersion
+                        && peer.accept(change.getVersion())) {
+                    missed.add(change);
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not read missed product changes from {}", peerId, e);
+        }
+        if (!missed.isEmpty()) {
+            log.info("Replaying {} missed product changes from {}", missed.size(), peerId);
+            replayedCounter.increment(missed.size());
+            missed.forEach(this::apply);
+        }
+    }
+
+    /**
+     * Drop everything the local caches derived from other instances' changes. Runs at most once
+     * per min-resync-interval-ms; a resync requested sooner is deferred to a later heartbeat,
+     * which is enough because one resync covers every loss before it.
+     */
+    void resync() {
+        long now = System.currentTimeMillis();
+        long last = lastResyncAt.get();
+        if ((last != 0 && now - last < minResyncIntervalMillis) || !lastResyncAt.compareAndSet(last, now)) {
+            if (resyncDeferred.compareAndSet(false, true)) {
+                log.info("Deferring cache resync; the last one ran less than {} ms ago", minResyncIntervalMillis);
+            }
+            return;
+        }
+        resyncDeferred.set(false);
+        resyncCounter.increment();
+        for (ProductChangeListener listener : listeners) {
+            try {
+                listener.resync();
+            } catch (RuntimeException e) {
+                log.error("Cache resync failed in {}", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void apply(ProductChangeDto change) {
+        appliedCounter.increment();
+        for (ProductChangeListener listener : listeners) {
+            try {
+                listener.onRemoteChange(change);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} in {}, reloading what it touched", change,
+                        listener.getClass().getSimpleName(), e);
+                try {
+                    listener.reload(change);
+                } catch (RuntimeException reloadFailure) {
+                    log.error("Reload after a failed change failed in {}", listener.getClass().getSimpleName(),
+                            reloadFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget instances this one has not heard from for peer-timeout-ms while it kept receiving
+     * its own messages, so stopped instances do not pile up. Time spent without a connection
+     * does not count, because nothing was received from anyone then.
+     */
+    private void evictQuietPeers() {
+        long receivedAt = lastReceivedAt;
+        peers.entrySet().removeIf(entry -> receivedAt - entry.getValue().seenAt > peerTimeoutMillis);
+    }
+
+    int getPeerCount() {
+        return peers.size();
+    }
+
+    private static ProductChangeDto change(String type, Product previous, Product current) {
+        ProductChangeDto change = new ProductChangeDto();
+        change.setType(type);
+        Product product = current != null ? current : previous;
+        change.setProductKey(product.getProductKey());
+        if (previous != null) {
+            change.setPreviousBrandId(previous.getBrandId());
+            change.setPreviousRetailerId(previous.getRetailerId());
+            change.setPreviousPrice(previous.getPrice());
+        }
+        if (current != null) {
+            change.setBrandId(current.getBrandId());
+            change.setRetailerId(current.getRetailerId());
+            change.setPrice(current.getPrice());
+        }
+        return change;
+    }
+
+    /**
+     * What this instance applied of another instance's changes. Every version up to settled
+     * is accounted for, and seen holds the versions above it. Until its first heartbeat an
+     * instance has no settled version, because changes that took lower versions than the
+     * first one received may still be committing.
+     */
+    private static final class Peer {
+        private final TreeSet<Long> seen = new TreeSet<>();
+        private Long settled;
+        private volatile long seenAt;
+
+        /**
+         * Record a change, returning false when it was applied already
+         */
+        private boolean accept(long version) {
+            return (settled == null || version > settled) && seen.add(version);
+        }
+
+        private long missing(long afterVersion, long upToVersion) {
+            return upToVersion - afterVersion - seen.subSet(afterVersion, false, upToVersion, true).size();
+        }
+
+        private void settle(long version) {
+            settled = version;
+            seen.headSet(version, true).clear();
+        }
+    }
+}
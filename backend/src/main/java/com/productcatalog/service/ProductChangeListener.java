@@ -0,0 +1,26 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.ProductChangeDto;
+
+/**
+ * A per-instance cache that has to follow product changes committed by other backend instances.
+ * Implementations are registered with ProductChangeBroadcaster.
+ */
+public interface ProductChangeListener {
+
+    /**
+     * Apply a change committed on another instance
+     */
+    void onRemoteChange(ProductChangeDto change);
+
+    /**
+     * Applying the change failed; reload what it touched from the database
+     */
+    void reload(ProductChangeDto change);
+
+    /**
+     * Changes from other instances were missed and cannot be replayed; drop or reload anything
+     * derived from them
+     */
+    void resync();
+}
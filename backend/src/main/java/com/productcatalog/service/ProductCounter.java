@@ -0,0 +1,138 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.ProductChangeDto;
+import com.productcatalog.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory product count maintained by ProductService writes, so that reading the total
+ * does not run a full-table count. The value is loaded from the database on first use, follows
+ * inserts and deletes broadcast by other instances, and is periodically reconciled to absorb
+ * writes made directly in SQL.
+ */
+@Component
+public class ProductCounter implements ProductChangeListener {
+
+    private static final long UNKNOWN = -1L;
+    private static final int REFRESH_ATTEMPTS = 3;
+
+    private final ProductRepository productRepository;
+    // Every change bumps the generation, so a refresh can tell whether a write landed while it counted;
+    // pending counts local writes announced before their transaction and not yet recorded
+    private final AtomicReference<Snapshot> state = new AtomicReference<>(new Snapshot(UNKNOWN, 0, 0));
+
+    @Autowired
+    public ProductCounter(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Get the current product count, loading it from the database if not yet known
+     */
+    public long get() {
+        long current = state.get().count();
+        return current >= 0 ? current : refresh();
+    }
+
+    /**
+     * Reload the exact count from the database. The result is only stored if no local write was
+     * in progress when counting started and none was recorded while counting, since the count
+     * may or may not include such a write; otherwise it counts again, and after a few contended
+     * attempts keeps the in-memory value.
+     */
+    public long refresh() {
+        long exact = UNKNOWN;
+        for (int attempt = 0; attempt < REFRESH_ATTEMPTS; attempt++) {
+            Snapshot before = state.get();
+            exact = productRepository.count();
+            if (before.pending() == 0
+                    && state.compareAndSet(before, new Snapshot(exact, before.generation() + 1, 0))) {
+                return exact;
+            }
+        }
+        long current = state.get().count();
+        return current >= 0 ? current : exact;
+    }
+
+    /**
+     * Announce a local write that may insert or delete a product. Call before its transaction
+     * starts, and call writeFinished once it has committed or failed.
+     */
+    public void writeStarted() {
+        state.updateAndGet(current -> new Snapshot(current.count(), current.generation() + 1, current.pending() + 1));
+    }
+
+    /**
+     * Record the outcome of a write announced with writeStarted: +1 for an insert, -1 for a
+     * delete, 0 if it changed no row count or failed
+     */
+    public void writeFinished(int delta) {
+        state.updateAndGet(current -> new Snapshot(adjust(current.count(), delta), current.generation() + 1,
+                current.pending() - 1));
+    }
+
+    /**
+     * Record a product insert made by another instance
+     */
+    public void increment() {
+        state.updateAndGet(current -> current.next(adjust(current.count(), 1)));
+    }
+
+    /**
+     * Record a product delete made by another instance
+     */
+    public void decrement() {
+        state.updateAndGet(current -> current.next(adjust(current.count(), -1)));
+    }
+
+    /**
+     * Discard the in-memory count so the next read goes back to the database
+     */
+    public void invalidate() {
+        state.updateAndGet(current -> current.next(UNKNOWN));
+    }
+
+    @Override
+    public void onRemoteChange(ProductChangeDto change) {
+        if (ProductChangeBroadcaster.TYPE_CREATED.equals(change.getType())) {
+            increment();
+        } else if (ProductChangeBroadcaster.TYPE_DELETED.equals(change.getType())) {
+            decrement();
+        }
+    }
+
+    @Override
+    public void reload(ProductChangeDto change) {
+        invalidate();
+    }
+
+    @Override
+    public void resync() {
+        invalidate();
+    }
+
+    /**
+     * Periodically correct drift from writes made by other instances or directly in SQL
+     */
+    @Scheduled(fixedDelayString = "${productcatalog.count.reconcile-interval-ms:300000}",
+               initialDelayString = "${productcatalog.count.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (state.get().count() >= 0) {
+            refresh();
+        }
+    }
+
+    private static long adjust(long count, int delta) {
+        return count < 0 ? UNKNOWN : Math.max(0, count + delta);
+    }
+
+    private record Snapshot(long count, long generation, int pending) {
+        Snapshot next(long newCount) {
+            return new Snapshot(newCount, generation + 1, pending);
+        }
+    }
+}
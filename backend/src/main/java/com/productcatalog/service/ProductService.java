@@ -1,88 +1,223 @@
 package com.productcatalog.service;
 
 import com.productcatalog.dto.BrandSummaryDto;
+import com.productcatalog.dto.PriceStatisticsDto;
 import com.productcatalog.entity.Product;
 import com.productcatalog.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    private static final int PRICE_LOOKUP_CHUNK_SIZE = 1000;
+
     private final ProductRepository productRepository;
+    private final RequestCoalescer requestCoalescer;
+    private final ProductCounter productCounter;
+    private final PriceAnalyticsService priceAnalyticsService;
+    private final DimensionDictionary dimensionDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductChangeBroadcaster changeBroadcaster;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, RequestCoalescer requestCoalescer,
+                          ProductCounter productCounter, PriceAnalyticsService priceAnalyticsService,
+                          DimensionDictionary dimensionDictionary, TransactionTemplate transactionTemplate,
+                          ProductChangeBroadcaster changeBroadcaster) {
         this.productRepository = productRepository;
+        this.requestCoalescer = requestCoalescer;
+        this.productCounter = productCounter;
+        this.priceAnalyticsService = priceAnalyticsService;
+        this.dimensionDictionary = dimensionDictionary;
+        this.transactionTemplate = transactionTemplate;
+        this.changeBroadcaster = changeBroadcaster;
     }
 
     /**
      * Get all products
      */
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return dimensionDictionary.fillNames(productRepository.findAll());
     }
 
     /**
      * Get product by ID
      */
     public Optional<Product> getProductById(Long productKey) {
-        return productRepository.findById(productKey);
+        return requestCoalescer.execute("product:" + productKey,
+                () -> productRepository.findById(productKey).map(dimensionDictionary::fillNames),
+                product -> product.map(ProductService::copyOf));
     }
 
     /**
      * Create a new product
      */
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        // One locking lookup decides between insert and overwrite; in the same transaction the
+        // overwrite merges into the entity it loaded, and the insert skips the select save() would run
+        AtomicReference<Product> previous = new AtomicReference<>();
+        // Announced before the transaction so a concurrent recount cannot count this insert twice
+        productCounter.writeStarted();
+        int countDelta = 0;
+        Product saved;
+        try {
+            saved = priceAnalyticsService.write(() -> {
+                Product written = transactionTemplate.execute(status -> {
+                    dimensionDictionary.resolveIds(product);
+                    Optional<Product> existing = product.getProductKey() == null
+                            ? Optional.empty()
+                            : productRepository.findByIdForUpdate(product.getProductKey());
+                    Product stored;
+                    if (existing.isEmpty()) {
+                        stored = productRepository.insert(product);
+                    } else {
+                        previous.set(copyOf(existing.get()));
+                        stored = productRepository.save(product);
+                    }
+                    changeBroadcaster.productSaved(previous.get(), stored);
+                    return stored;
+                });
+                priceAnalyticsService.productRemoved(previous.get());
+                priceAnalyticsService.productAdded(written);
+                return written;
+            });
+            countDelta = previous.get() == null ? 1 : 0;
+        } finally {
+            productCounter.writeFinished(countDelta);
+        }
+        requestCoalescer.forgetAll();
+        return dimensionDictionary.fillNames(saved);
     }
 
     /**
      * Update an existing product
      */
     public Product updateProduct(Product product) {
-        if (!productRepository.existsById(product.getProductKey())) {
-            throw new RuntimeException("Product not found with id: " + product.getProductKey());
-        }
-        return productRepository.save(product);
+        AtomicReference<Product> previous = new AtomicReference<>();
+        Product saved = priceAnalyticsService.write(() -> {
+            Product written = transactionTemplate.execute(status -> {
+                previous.set(productRepository.findByIdForUpdate(product.getProductKey())
+                        .map(ProductService::copyOf)
+                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + product.getProductKey())));
+                dimensionDictionary.resolveIds(product);
+                Product updated = productRepository.save(product);
+                changeBroadcaster.productSaved(previous.get(), updated);
+                return updated;
+            });
+            priceAnalyticsService.productRemoved(previous.get());
+            priceAnalyticsService.productAdded(written);
+            return written;
+        });
+        requestCoalescer.forgetAll();
+        return dimensionDictionary.fillNames(saved);
+    }
+
+    /**
+     * Apply a batch of price changes in a single transaction, returning the product keys that exist.
+     * Only key, brand id, retailer id and price are read (with the rows locked), and the new prices
+     * are written as one JDBC batch, so descriptions and other columns are never loaded. Rows are
+     * read in ascending key chunks, keeping each IN list well under PostgreSQL's bind parameter limit.
+     */
+    public Set<Long> updatePrices(Map<Long, BigDecimal> prices) {
+        List<Product> previous = new ArrayList<>();
+        List<Product> updated = new ArrayList<>();
+        priceAnalyticsService.write(() -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, BigDecimal> changed = new LinkedHashMap<>();
+                List<Long> keys = prices.keySet().stream().sorted().collect(Collectors.toList());
+                for (int from = 0; from < keys.size(); from += PRICE_LOOKUP_CHUNK_SIZE) {
+                    List<Long> chunk = keys.subList(from, Math.min(keys.size(), from + PRICE_LOOKUP_CHUNK_SIZE));
+                    for (Object[] row : productRepository.findPricePointsForUpdate(chunk)) {
+                        Long productKey = ((Number) row[0]).longValue();
+                        Integer brandId = row[1] == null ? null : ((Number) row[1]).intValue();
+                        Integer retailerId = row[2] == null ? null : ((Number) row[2]).intValue();
+                        previous.add(pricePoint(productKey, brandId, retailerId, (BigDecimal) row[3]));
+                        updated.add(pricePoint(productKey, brandId, retailerId, prices.get(productKey)));
+                        changed.put(productKey, prices.get(productKey));
+                    }
+                }
+                productRepository.updatePrices(changed);
+                changeBroadcaster.productsUpdated(previous, updated);
+            });
+            previous.forEach(priceAnalyticsService::productRemoved);
+            updated.forEach(priceAnalyticsService::productAdded);
+            return null;
+        });
+        requestCoalescer.forgetAll();
+        return updated.stream().map(Product::getProductKey).collect(Collectors.toSet());
     }
 
     /**
      * Delete a product by ID
      */
     public void deleteProduct(Long productKey) {
-        if (!productRepository.existsById(productKey)) {
-            throw new RuntimeException("Product not found with id: " + productKey);
+        productCounter.writeStarted();
+        int countDelta = 0;
+        try {
+            priceAnalyticsService.write(() -> {
+                Product deleted = transactionTemplate.execute(status -> {
+                    Product existing = productRepository.findByIdForUpdate(productKey)
+                            .map(ProductService::copyOf)
+                            .orElseThrow(() -> new RuntimeException("Product not found with id: " + productKey));
+                    productRepository.deleteById(productKey);
+                    changeBroadcaster.productDeleted(existing);
+                    return existing;
+                });
+                priceAnalyticsService.productRemoved(deleted);
+                return deleted;
+            });
+            countDelta = -1;
+        } finally {
+            productCounter.writeFinished(countDelta);
         }
-        productRepository.deleteById(productKey);
+        requestCoalescer.forgetAll();
     }
 
     /**
      * Search products by brand
      */
     public List<Product> getProductsByBrand(String brand) {
-        return productRepository.findByBrandIgnoreCase(brand);
+        if (brand == null) {
+            // No product has a null brand; the repository matched nothing for it either
+            return new ArrayList<>();
+        }
+        return requestCoalescer.execute("brand:" + brand.trim().toLowerCase(Locale.ROOT),
+                () -> dimensionDictionary.findBrandId(brand)
+                        .map(brandId -> dimensionDictionary.fillNames(productRepository.findByBrandId(brandId)))
+                        .orElseGet(ArrayList::new),
+                products -> products.stream().map(ProductService::copyOf).collect(Collectors.toList()));
     }
 
     /**
      * Search products by product name
      */
     public List<Product> searchProductsByName(String productName) {
-        return productRepository.findByProductNameContainingIgnoreCase(productName);
+        return dimensionDictionary.fillNames(productRepository.findByProductNameContainingIgnoreCase(productName));
     }
 
     /**
      * Get brand summary with product count grouped by brand
      */
     public List<BrandSummaryDto> getBrandSummary() {
-        List<Object[]> results = productRepository.getBrandSummary();
+        List<Object[]> results = requestCoalescer.execute("brand-summary",
+                () -> List.copyOf(productRepository.getBrandSummary()));
         return results.stream()
                 .map(result -> new BrandSummaryDto(
-                        (String) result[0],
+                        dimensionDictionary.getBrandName(((Number) result[0]).intValue()),
                         ((Number) result[1]).longValue()
                 ))
                 .collect(Collectors.toList());
@@ -99,6 +234,59 @@ public class ProductService {
      * Get total product count
      */
     public long getTotalProductCount() {
-        return productRepository.count();
+        return productCounter.get();
+    }
+
+    /**
+     * Get approximate product count from the planner statistics, falling back to the exact count
+     * when no estimate is available (table never analyzed, or not running on PostgreSQL)
+     */
+    public long getApproximateProductCount() {
+        try {
+            Long estimate = productRepository.estimateRowCount();
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        } catch (DataAccessException e) {
+            // pg_class is PostgreSQL specific
+        }
+        return getTotalProductCount();
+    }
+
+    /**
+     * Get price statistics per brand, retailer or brand-retailer pair
+     */
+    public List<PriceStatisticsDto> getPriceStatistics(String groupBy, int histogramBuckets) {
+        return priceAnalyticsService.getPriceStatistics(groupBy, histogramBuckets);
+    }
+
+    /**
+     * Rebuild price statistics from the whole catalog, returning the number of products read
+     */
+    public long recomputePriceStatistics(boolean parallel) {
+        return priceAnalyticsService.recompute(parallel);
+    }
+
+    /**
+     * Product carrying only what price analytics and change messages read
+     */
+    private static Product pricePoint(Long productKey, Integer brandId, Integer retailerId, BigDecimal price) {
+        Product product = new Product();
+        product.setProductKey(productKey);
+        product.setBrandId(brandId);
+        product.setRetailerId(retailerId);
+        product.setPrice(price);
+        return product;
+    }
+
+    /**
+     * Detached copy of a product, so the pre-write state survives the entity being merged over
+     */
+    private static Product copyOf(Product product) {
+        Product copy = new Product(product.getProductKey(), product.getRetailer(), product.getBrand(),
+                product.getModel(), product.getProductName(), product.getPrice(), product.getProductDescription());
+        copy.setRetailerId(product.getRetailerId());
+        copy.setBrandId(product.getBrandId());
+        return copy;
     }
-}
\ No newline at end of file
+}
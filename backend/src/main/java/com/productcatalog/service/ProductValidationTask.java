@@ -0,0 +1,50 @@
+package com.productcatalog.service;
+
+import com.productcatalog.entity.Product;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Re-checks every stored product against the entity validation constraints, catching rows
+ * that were loaded directly into the database without going through the API.
+ */
+@Component
+public class ProductValidationTask implements CatalogTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductValidationTask.class);
+
+    private final Validator validator;
+
+    @Autowired
+    public ProductValidationTask(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public String getName() {
+        return "validate";
+    }
+
+    @Override
+    public long process(List<Product> products) {
+        long invalid = 0;
+        for (Product product : products) {
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                invalid++;
+                for (ConstraintViolation<Product> violation : violations) {
+                    log.warn("Product {} failed validation: {} {}", product.getProductKey(),
+                            violation.getPropertyPath(), violation.getMessage());
+                }
+            }
+        }
+        return invalid;
+    }
+}
@@ -0,0 +1,152 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.ProductChangeDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight layer for read queries. Concurrent callers asking for the same key
+ * share one in-flight database call and its result instead of each issuing the same SQL.
+ * Nothing is cached: once the leading call completes the key is released, so the next
+ * caller always goes back to the database. Callers that joined a call get the result through
+ * a share function, so mutable results (entities, lists) can be handed out as copies.
+ */
+@Component
+public class RequestCoalescer implements ProductChangeListener {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final long maxWaitMillis;
+    private final Counter leaderCounter;
+    private final Counter coalescedCounter;
+    private final Counter timeoutCounter;
+
+    @Autowired
+    public RequestCoalescer(MeterRegistry meterRegistry,
+                            @Value("${productcatalog.coalescing.max-wait-ms:2000}") long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+        this.leaderCounter = Counter.builder("productcatalog.coalescing.requests")
+                .description("Read requests that issued their own database call")
+                .tag("outcome", "leader")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("productcatalog.coalescing.requests")
+                .description("Read requests that shared an in-flight database call")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("productcatalog.coalescing.requests")
+                .description("Coalesced requests that gave up waiting and queried directly")
+                .tag("outcome", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("productcatalog.coalescing.in-flight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct read keys currently being loaded")
+                .register(meterRegistry);
+        Gauge.builder("productcatalog.coalescing.waiting", waiting, AtomicInteger::get)
+                .description("Requests currently waiting on another request's database call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the loader for the given key, or join an identical call already in flight.
+     * The result is shared as is, so the loader should return an immutable value.
+     */
+    public <T> T execute(String key, Supplier<T> loader) {
+        return execute(key, loader, UnaryOperator.identity());
+    }
+
+    /**
+     * Run the loader for the given key, or join an identical call already in flight. Callers
+     * that join get share applied to the leader's result, and wait at most the configured time
+     * before querying on their own.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader, UnaryOperator<T> share) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing == null) {
+            leaderCounter.increment();
+            try {
+                T result = loader.get();
+                call.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        Object shared;
+        waiting.incrementAndGet();
+        try {
+            shared = existing.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeoutCounter.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            coalescedCounter.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Coalesced request failed for key: " + key, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced request: " + key, e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        coalescedCounter.increment();
+        return share.apply((T) shared);
+    }
+
+    /**
+     * Detach every in-flight call so that requests arriving after a write start a fresh
+     * query rather than joining one that may have read the pre-write state.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Number of distinct keys currently being loaded
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * A write on another instance makes in-flight reads stale there too
+     */
+    @Override
+    public void onRemoteChange(ProductChangeDto change) {
+        forgetAll();
+    }
+
+    @Override
+    public void reload(ProductChangeDto change) {
+        forgetAll();
+    }
+
+    @Override
+    public void resync() {
+        forgetAll();
+    }
+}
@@ -0,0 +1,30 @@
+package com.productcatalog;
+
+import com.productcatalog.dto.ProductChangeDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogRuntimeHintsTest {
+
+    @Test
+    void registerHints_ShouldCoverChangeMessagesAndJdbcProxies() {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new CatalogRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Then
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ProductChangeDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(PreparedStatement.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ResultSet.class).test(hints));
+    }
+}
@@ -0,0 +1,122 @@
+package com.productcatalog.controller;
+
+import com.productcatalog.entity.Product;
+import com.productcatalog.monitoring.QueryBudgetFilter;
+import com.productcatalog.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static com.productcatalog.monitoring.QueryAssertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the full application against an in-memory H2 database to pin how many statements the
+ * product endpoints execute
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querybudget;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "productcatalog.cache-sync.transport=local",
+        "productcatalog.query-budget.headers=true",
+        "productcatalog.query-budget.endpoints[0].endpoint=GET /products/search",
+        "productcatalog.query-budget.endpoints[0].max-statements=0"
+})
+class ProductControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        if (!productService.productExists(1L)) {
+            productService.createProduct(new Product(1L, "Test Retailer", "Test Brand", "Test Model",
+                    "Test Product", new BigDecimal("99.99"), "Test Description"));
+        }
+    }
+
+    @Test
+    void getProductById_ShouldRunOneStatement() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(statementCount(1))
+                .andExpect(header().string(QueryBudgetFilter.HEADER_ROWS, "1"))
+                .andExpect(withinBudget());
+    }
+
+    @Test
+    void getBrandSummary_ShouldRunOneStatement() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/products/brand-summary"))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(1))
+                .andExpect(withinBudget());
+    }
+
+    @Test
+    void searchProducts_OverBudget_ShouldFlagRequest() throws Exception {
+        // When
+        mockMvc.perform(get("/products/search").param("name", "Test"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryBudgetFilter.HEADER_EXCEEDED, QueryBudgetFilter.LIMIT_STATEMENTS));
+
+        // Then
+        assertTrue(meterRegistry.get("productcatalog.db.budget.exceeded")
+                .tags("uri", "/products/search", "limit", QueryBudgetFilter.LIMIT_STATEMENTS)
+                .counter().count() >= 1);
+    }
+
+    @Test
+    void unmappedPath_ShouldBeTaggedNotFound() throws Exception {
+        // When
+        mockMvc.perform(get("/no-such-endpoint"))
+                .andExpect(status().isNotFound());
+
+        // Then
+        assertEquals(1, meterRegistry.get("productcatalog.db.statements")
+                .tags("method", "GET", "uri", "NOT_FOUND")
+                .summary().count());
+    }
+
+    @Test
+    void createProduct_ShouldSelectOnceAndInsert() {
+        // When
+        Product created = assertStatementCount(2, () -> productService.createProduct(new Product(2L,
+                "Test Retailer", "Test Brand", "Test Model", "Second Product", new BigDecimal("19.99"), null)));
+
+        // Then
+        assertEquals(2L, created.getProductKey());
+        assertTrue(productService.productExists(2L));
+    }
+
+    @Test
+    void getProductById_ServiceCall_ShouldRunOneStatement() {
+        // When
+        Product product = assertStatementCount(1, () -> productService.getProductById(1L).orElseThrow());
+
+        // Then
+        assertEquals("Test Brand", product.getBrand());
+    }
+}
@@ -2,7 +2,11 @@ package com.productcatalog.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.productcatalog.dto.BrandSummaryDto;
+import com.productcatalog.dto.PriceStatisticsDto;
+import com.productcatalog.dto.PriceUpdateDto;
+import com.productcatalog.dto.PriceUpdateResultDto;
 import com.productcatalog.entity.Product;
+import com.productcatalog.service.PriceUpdateQueue;
 import com.productcatalog.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,7 +22,10 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +39,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private PriceUpdateQueue priceUpdateQueue;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -128,6 +138,20 @@ class ProductControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createProduct_WithTooLongBrand_ShouldReturnBadRequest() throws Exception {
+        // Given
+        testProduct.setBrand("B".repeat(65));
+
+        // When & Then
+        mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProduct)))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).createProduct(any(Product.class));
+    }
+
     @Test
     void updateProduct_WithValidProduct_ShouldReturnUpdatedProduct() throws Exception {
         // Given
@@ -249,4 +273,96 @@ class ProductControllerTest {
 
         verify(productService).getTotalProductCount();
     }
+
+    @Test
+    void getProductCount_WithApproximate_ShouldReturnEstimate() throws Exception {
+        // Given
+        when(productService.getApproximateProductCount()).thenReturn(1000L);
+
+        // When & Then
+        mockMvc.perform(get("/products/count").param("approximate", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1000"));
+
+        verify(productService).getApproximateProductCount();
+        verify(productService, never()).getTotalProductCount();
+    }
+
+    @Test
+    void getPriceStatistics_ShouldReturnStatisticsList() throws Exception {
+        // Given
+        PriceStatisticsDto statistics = new PriceStatisticsDto();
+        statistics.setBrand("Brand A");
+        statistics.setCount(5L);
+        statistics.setAvgPrice(new BigDecimal("19.99"));
+        when(productService.getPriceStatistics("brand", 10)).thenReturn(Arrays.asList(statistics));
+
+        // When & Then
+        mockMvc.perform(get("/products/price-statistics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].brand").value("Brand A"))
+                .andExpect(jsonPath("$[0].count").value(5))
+                .andExpect(jsonPath("$[0].avgPrice").value(19.99));
+
+        verify(productService).getPriceStatistics("brand", 10);
+    }
+
+    @Test
+    void getPriceStatistics_WithUnknownGrouping_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(productService.getPriceStatistics("model", 10))
+                .thenThrow(new IllegalArgumentException("Unsupported groupBy: model"));
+
+        // When & Then
+        mockMvc.perform(get("/products/price-statistics").param("groupBy", "model"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updatePrices_WhenQueued_ShouldReturnAccepted() throws Exception {
+        // Given
+        List<PriceUpdateDto> updates = Arrays.asList(new PriceUpdateDto(1L, new BigDecimal("9.99")));
+        when(priceUpdateQueue.submit(anyList(), eq(false)))
+                .thenReturn(Arrays.asList(new PriceUpdateResultDto(1L, PriceUpdateQueue.STATUS_QUEUED)));
+
+        // When & Then
+        mockMvc.perform(put("/products/prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$[0].productKey").value(1))
+                .andExpect(jsonPath("$[0].status").value("QUEUED"));
+
+        verify(priceUpdateQueue).submit(anyList(), eq(false));
+    }
+
+    @Test
+    void updatePrices_WhenQueueFull_ShouldReturnTooManyRequests() throws Exception {
+        // Given
+        List<PriceUpdateDto> updates = Arrays.asList(new PriceUpdateDto(1L, new BigDecimal("9.99")));
+        when(priceUpdateQueue.submit(anyList(), eq(true)))
+                .thenReturn(Arrays.asList(new PriceUpdateResultDto(1L, PriceUpdateQueue.STATUS_REJECTED)));
+
+        // When & Then
+        mockMvc.perform(put("/products/prices").param("ack", "flushed")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void updatePrices_WithNegativePrice_ShouldReturnBadRequest() throws Exception {
+        // Given
+        List<PriceUpdateDto> updates = Arrays.asList(new PriceUpdateDto(1L, new BigDecimal("-1.00")));
+
+        // When & Then
+        mockMvc.perform(put("/products/prices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isBadRequest());
+
+        verify(priceUpdateQueue, never()).submit(anyList(), anyBoolean());
+    }
 }
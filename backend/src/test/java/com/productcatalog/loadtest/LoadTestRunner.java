@@ -0,0 +1,350 @@
+package com.productcatalog.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Closed-loop load test against a running backend seeded by SyntheticCatalogGenerator. A fixed
+ * number of workers issue a weighted mix of detail, search, brand summary, list, count and
+ * price-write requests for the configured duration, after a warm-up whose requests are not
+ * recorded. Reports throughput and p50/p99/p999 latency per endpoint, writes the report as JSON
+ * and compares it against a baseline recorded on the same machine, which
+ * scripts/loadtest-compare.sh records from the base commit first. Exits with 1 on a regression
+ * and 2 when there is no baseline to compare against.
+ *
+ * Usage: LoadTestRunner [--base-url=http://localhost:8080] [--duration=60] [--warmup=15]
+ *        [--concurrency=16] [--products=100000] [--seed=42] [--brands=2000] [--retailers=20]
+ *        [--key-offset=100000000] [--mix=detail:60,search-name:10,...]
+ *        [--baseline=src/test/resources/loadtest/baseline.json] [--tolerance=0.25]
+ *        [--report=target/loadtest/report.json] [--record-baseline]
+ */
+public class LoadTestRunner {
+
+    public static final String DEFAULT_MIX =
+            "detail:60,search-name:10,search-brand:8,brand-summary:10,count:5,list:1,write:6";
+    public static final String DEFAULT_BASELINE = "src/test/resources/loadtest/baseline.json";
+
+    static final int EXIT_REGRESSION = 1;
+    static final int EXIT_NO_BASELINE = 2;
+
+    // Latency regressions smaller than this are treated as noise, whatever the tolerance
+    private static final double LATENCY_SLACK_MS = 1.0;
+    private static final double ERROR_RATE_SLACK = 0.01;
+    // A percentile is only compared when both runs have at least this many requests above it;
+    // with fewer, p999 is just the slowest request or two
+    private static final int MIN_TAIL_SAMPLES = 10;
+    // Share of detail requests sent to the hottest fifth of the catalog
+    private static final double HOT_KEY_SHARE = 0.8;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final SyntheticCatalogGenerator catalog;
+    private final long products;
+    private final Map<String, Function<SplittableRandom, HttpRequest>> operations = new LinkedHashMap<>();
+    private final String[] schedule;
+
+    public LoadTestRunner(String baseUrl, SyntheticCatalogGenerator catalog, long products, String mix) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.catalog = catalog;
+        this.products = products;
+        operations.put("detail", random -> get("/products/" + catalog.productKey(sampleIndex(random))));
+        operations.put("search-name", random -> get("/products/search?name=" + encode(catalog.sampleSearchTerm(random))));
+        operations.put("search-brand", random -> get("/products/search?brand=" + encode(catalog.sampleBrand(random))));
+        operations.put("brand-summary", random -> get("/products/brand-summary"));
+        operations.put("count", random -> get("/products/count"));
+        operations.put("list", random -> get("/products"));
+        operations.put("write", this::priceUpdate);
+        this.schedule = schedule(mix);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        long products = arguments.getLong("products", 100_000);
+        SyntheticCatalogGenerator catalog = new SyntheticCatalogGenerator(
+                SyntheticCatalogGenerator.SampleCatalog.load(
+                        Path.of(arguments.get("sample", SyntheticCatalogGenerator.DEFAULT_SAMPLE))),
+                arguments.getLong("seed", SyntheticCatalogGenerator.DEFAULT_SEED),
+                arguments.getInt("brands", SyntheticCatalogGenerator.DEFAULT_BRANDS),
+                arguments.getInt("retailers", SyntheticCatalogGenerator.DEFAULT_RETAILERS),
+                arguments.getLong("key-offset", SyntheticCatalogGenerator.DEFAULT_KEY_OFFSET));
+        LoadTestRunner runner = new LoadTestRunner(arguments.get("base-url", "http://localhost:8080"),
+                catalog, products, arguments.get("mix", DEFAULT_MIX));
+
+        Map<String, Object> report = runner.run(arguments.getInt("concurrency", 16),
+                Duration.ofSeconds(arguments.getLong("warmup", 15)),
+                Duration.ofSeconds(arguments.getLong("duration", 60)));
+        printReport(report);
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path reportPath = Path.of(arguments.get("report", "target/loadtest/report.json"));
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        mapper.writeValue(reportPath.toFile(), report);
+
+        Path baselinePath = Path.of(arguments.get("baseline", DEFAULT_BASELINE));
+        if (arguments.getBoolean("record-baseline")) {
+            Files.createDirectories(baselinePath.toAbsolutePath().getParent());
+            mapper.writeValue(baselinePath.toFile(), report);
+            System.out.println("Recorded baseline " + baselinePath);
+            return;
+        }
+        if (!Files.exists(baselinePath)) {
+            System.err.println("No baseline at " + baselinePath
+                    + "; run with --record-baseline first, or compare through scripts/loadtest-compare.sh");
+            System.exit(EXIT_NO_BASELINE);
+        }
+        List<String> regressions = compare(mapper.readTree(baselinePath.toFile()),
+                mapper.valueToTree(report), arguments.getDouble("tolerance", 0.25));
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against " + baselinePath);
+        } else {
+            regressions.forEach(regression -> System.err.println("REGRESSION " + regression));
+            System.exit(EXIT_REGRESSION);
+        }
+    }
+
+    /**
+     * Run the scenario mix and return the report: run settings plus per-endpoint results
+     */
+    public Map<String, Object> run(int concurrency, Duration warmup, Duration duration) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        try {
+            List<Future<Map<String, Recorder>>> results = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                SplittableRandom random = new SplittableRandom(worker * 7919L + 1);
+                results.add(workers.submit(() -> runWorker(random, measureFrom, measureUntil)));
+            }
+            Map<String, Recorder> merged = new LinkedHashMap<>();
+            operations.keySet().forEach(name -> merged.put(name, new Recorder()));
+            for (Future<Map<String, Recorder>> result : results) {
+                result.get().forEach((name, recorder) -> merged.get(name).merge(recorder));
+            }
+
+            double seconds = duration.toNanos() / 1e9;
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            Recorder total = new Recorder();
+            merged.forEach((name, recorder) -> {
+                if (recorder.count > 0) {
+                    endpoints.put(name, recorder.summary(seconds));
+                    total.merge(recorder);
+                }
+            });
+            endpoints.put("total", total.summary(seconds));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("concurrency", concurrency);
+            report.put("durationSeconds", duration.toSeconds());
+            report.put("products", products);
+            report.put("endpoints", endpoints);
+            return report;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * List the checks that are worse than the baseline by more than the tolerance
+     */
+    static List<String> compare(JsonNode baseline, JsonNode current, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        baseline.path("endpoints").fields().forEachRemaining(entry -> {
+            String endpoint = entry.getKey();
+            JsonNode expected = entry.getValue();
+            JsonNode actual = current.path("endpoints").path(endpoint);
+            if (actual.isMissingNode()) {
+                regressions.add(endpoint + ": no requests recorded");
+                return;
+            }
+            double minThroughput = expected.path("throughput").asDouble() * (1 - tolerance);
+            if (actual.path("throughput").asDouble() < minThroughput) {
+                regressions.add(String.format(Locale.ROOT, "%s: throughput %.1f/s below %.1f/s",
+                        endpoint, actual.path("throughput").asDouble(), minThroughput));
+            }
+            checkLatency(regressions, endpoint, "p50Ms", 0.50, expected, actual, tolerance);
+            checkLatency(regressions, endpoint, "p99Ms", 0.99, expected, actual, tolerance);
+            // The far tail is noisier, so it gets twice the tolerance
+            checkLatency(regressions, endpoint, "p999Ms", 0.999, expected, actual, tolerance * 2);
+            double maxErrorRate = expected.path("errorRate").asDouble() + ERROR_RATE_SLACK;
+            if (actual.path("errorRate").asDouble() > maxErrorRate) {
+                regressions.add(String.format(Locale.ROOT, "%s: error rate %.3f above %.3f",
+                        endpoint, actual.path("errorRate").asDouble(), maxErrorRate));
+            }
+        });
+        return regressions;
+    }
+
+    private static void checkLatency(List<String> regressions, String endpoint, String field, double quantile,
+                                     JsonNode expected, JsonNode actual, double tolerance) {
+        long requests = Math.min(expected.path("requests").asLong(), actual.path("requests").asLong());
+        if (requests * (1 - quantile) < MIN_TAIL_SAMPLES) {
+            System.out.println(endpoint + ": too few requests (" + requests + ") to compare " + field);
+            return;
+        }
+        double limit = expected.path(field).asDouble() * (1 + tolerance) + LATENCY_SLACK_MS;
+        double value = actual.path(field).asDouble();
+        if (value > limit) {
+            regressions.add(String.format(Locale.ROOT, "%s: %s %.2fms above %.2fms", endpoint, field, value, limit));
+        }
+    }
+
+    private Map<String, Recorder> runWorker(SplittableRandom random, long measureFrom, long measureUntil) {
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        while (true) {
+            String name = schedule[random.nextInt(schedule.length)];
+            HttpRequest request = operations.get(name).apply(random);
+            long started = System.nanoTime();
+            if (started >= measureUntil) {
+                return recorders;
+            }
+            boolean failed;
+            try {
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return recorders;
+            } catch (Exception e) {
+                failed = true;
+            }
+            if (started >= measureFrom) {
+                recorders.computeIfAbsent(name, key -> new Recorder()).record(System.nanoTime() - started, failed);
+            }
+        }
+    }
+
+    private long sampleIndex(SplittableRandom random) {
+        long hot = Math.max(1, products / 5);
+        return random.nextDouble() < HOT_KEY_SHARE ? random.nextLong(hot) : random.nextLong(products);
+    }
+
+    private HttpRequest priceUpdate(SplittableRandom random) {
+        long key = catalog.productKey(sampleIndex(random));
+        String price = String.format(Locale.ROOT, "%.2f", 1 + random.nextDouble() * 999);
+        String body = "[{\"productKey\":" + key + ",\"price\":" + price + "}]";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/products/prices?ack=flushed"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private String[] schedule(String mix) {
+        List<String> slots = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !operations.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Bad mix entry '" + entry + "', expected one of "
+                        + operations.keySet() + " as name:weight");
+            }
+            for (int i = 0; i < Integer.parseInt(parts[1]); i++) {
+                slots.add(parts[0]);
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no weight: " + mix);
+        }
+        return slots.toArray(new String[0]);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printReport(Map<String, Object> report) {
+        System.out.printf(Locale.ROOT, "%-14s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        ((Map<String, Map<String, Object>>) report.get("endpoints")).forEach((name, summary) ->
+                System.out.printf(Locale.ROOT, "%-14s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name,
+                        summary.get("requests"), summary.get("errors"), summary.get("throughput"),
+                        summary.get("p50Ms"), summary.get("p99Ms"), summary.get("p999Ms"), summary.get("maxMs")));
+    }
+
+    /**
+     * Latencies of one endpoint, kept raw so percentiles are exact
+     */
+    static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean failed) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        Map<String, Object> summary(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", (long) count);
+            summary.put("errors", errors);
+            summary.put("errorRate", round(count == 0 ? 0 : (double) errors / count));
+            summary.put("throughput", round(count / seconds));
+            summary.put("p50Ms", millis(sorted, 0.50));
+            summary.put("p99Ms", millis(sorted, 0.99));
+            summary.put("p999Ms", millis(sorted, 0.999));
+            summary.put("maxMs", millis(sorted, 1.0));
+            return summary;
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return round(sorted[Math.max(0, index)] / 1e6);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 1000) / 1000.0;
+        }
+    }
+}
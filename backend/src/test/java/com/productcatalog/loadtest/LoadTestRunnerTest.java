@@ -0,0 +1,69 @@
+package com.productcatalog.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestRunnerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void compare_WithinTolerance_ShouldReportNoRegressions() throws Exception {
+        // Given
+        JsonNode baseline = report(1000, 2.0, 10.0, 20.0, 0.0);
+        JsonNode current = report(900, 2.4, 12.0, 25.0, 0.0);
+
+        // When
+        List<String> regressions = LoadTestRunner.compare(baseline, current, 0.25);
+
+        // Then
+        assertTrue(regressions.isEmpty(), regressions.toString());
+    }
+
+    @Test
+    void compare_WithSlowerTailAndLowerThroughput_ShouldReportRegressions() throws Exception {
+        // Given
+        JsonNode baseline = report(1000, 2.0, 10.0, 20.0, 0.0);
+        JsonNode current = report(600, 2.0, 20.0, 20.0, 0.05);
+
+        // When
+        List<String> regressions = LoadTestRunner.compare(baseline, current, 0.25);
+
+        // Then
+        assertEquals(3, regressions.size(), regressions.toString());
+        assertTrue(regressions.get(0).startsWith("detail: throughput"));
+        assertTrue(regressions.get(1).startsWith("detail: p99Ms"));
+        assertTrue(regressions.get(2).startsWith("detail: error rate"));
+    }
+
+    @Test
+    void compare_WithTooFewRequestsForTail_ShouldSkipTailPercentiles() throws Exception {
+        // Given
+        JsonNode baseline = report(2000, 1000, 2.0, 10.0, 20.0, 0.0);
+        JsonNode current = report(2000, 1000, 2.0, 10.0, 200.0, 0.0);
+
+        // When
+        List<String> regressions = LoadTestRunner.compare(baseline, current, 0.25);
+
+        // Then
+        assertTrue(regressions.isEmpty(), regressions.toString());
+    }
+
+    private JsonNode report(double throughput, double p50, double p99, double p999, double errorRate) throws Exception {
+        return report(100_000, throughput, p50, p99, p999, errorRate);
+    }
+
+    private JsonNode report(long requests, double throughput, double p50, double p99, double p999,
+                            double errorRate) throws Exception {
+        return mapper.readTree(String.format(Locale.ROOT,
+                "{\"endpoints\":{\"detail\":{\"requests\":%d,\"throughput\":%s,\"p50Ms\":%s,\"p99Ms\":%s,"
+                        + "\"p999Ms\":%s,\"errorRate\":%s}}}",
+                requests, throughput, p50, p99, p999, errorRate));
+    }
+}
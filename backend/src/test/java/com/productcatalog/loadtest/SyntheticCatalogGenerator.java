@@ -0,0 +1,429 @@
+package com.productcatalog.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcatalog.entity.Product;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Reproducible synthetic catalog for load testing. Brand and retailer popularity follow a Zipf
+ * distribution seeded with the sample catalog's brands in frequency order, and product names
+ * and descriptions are assembled from the sample vocabulary with lengths drawn from the sample
+ * length distributions. Every product is derived from (seed, index) alone, so the same
+ * arguments always produce the same catalog and the load test can pick valid keys without
+ * reading the database.
+ *
+ * Usage: SyntheticCatalogGenerator --jdbc-url=... [--user=...] [--password=...]
+ *        [--products=100000] [--seed=42] [--brands=2000] [--retailers=20]
+ *        [--key-offset=100000000] [--batch-size=1000] [--create-schema]
+ *        [--sample=../docs/products.json]
+ */
+public class SyntheticCatalogGenerator {
+
+    public static final long DEFAULT_SEED = 42L;
+    public static final long DEFAULT_KEY_OFFSET = 100_000_000L;
+    public static final int DEFAULT_BRANDS = 2000;
+    public static final int DEFAULT_RETAILERS = 20;
+    public static final String DEFAULT_SAMPLE = "../docs/products.json";
+
+    // Zipf exponents; the sample has its top brand on a quarter of the products
+    private static final double BRAND_SKEW = 1.1;
+    private static final double RETAILER_SKEW = 2.0;
+
+    // Log-normal fitted to the prices in db/init-data.sql (median around $200)
+    private static final double PRICE_LOG_MEAN = 5.29;
+    private static final double PRICE_LOG_SD = 1.27;
+
+    private static final int MAX_NAME_LENGTH = 96;
+    private static final int MAX_DIMENSION_LENGTH = 64;
+    private static final String[] BRAND_SUFFIXES = {"Industries", "Home", "Supply", "Works", "Co.", "Products", "Outdoor", "Designs"};
+    private static final String[] RETAILER_SUFFIXES = {"Retail", "Home Center", "Hardware", "Outlet", "Depot"};
+    private static final String MODEL_CHARACTERS = "ABCDEFGHJKLMNPRSTUVWXYZ0123456789";
+
+    private final long seed;
+    private final long keyOffset;
+    private final List<String> brands;
+    private final List<String> retailers;
+    private final double[] brandCumulative;
+    private final double[] retailerCumulative;
+    private final int[] nameLengths;
+    private final int[] descriptionLengths;
+    private final String[] nameWords;
+    private final String[] descriptionWords;
+    private final String[] searchTerms;
+
+    public SyntheticCatalogGenerator(SampleCatalog sample, long seed, int brandCount, int retailerCount, long keyOffset) {
+        this.seed = seed;
+        this.keyOffset = keyOffset;
+        this.nameLengths = sample.nameLengths;
+        this.descriptionLengths = sample.descriptionLengths;
+        this.nameWords = sample.nameWords;
+        this.descriptionWords = sample.descriptionWords;
+        // Words of four or more letters; shorter words and model numbers make poor name searches
+        this.searchTerms = Arrays.stream(nameWords)
+                .filter(word -> word.length() >= 4 && word.chars().allMatch(Character::isLetter))
+                .toArray(String[]::new);
+        if (searchTerms.length == 0) {
+            throw new IllegalArgumentException("Sample product names have no word of four or more letters to search for");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        this.brands = dimension(sample.brands, brandCount, BRAND_SUFFIXES, random);
+        this.retailers = dimension(sample.retailers, retailerCount, RETAILER_SUFFIXES, random);
+        this.brandCumulative = zipf(brands.size(), BRAND_SKEW);
+        this.retailerCumulative = zipf(retailers.size(), RETAILER_SKEW);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        String jdbcUrl = arguments.get("jdbc-url", null);
+        if (jdbcUrl == null) {
+            throw new IllegalArgumentException("--jdbc-url is required");
+        }
+        long products = arguments.getLong("products", 100_000);
+        SyntheticCatalogGenerator generator = new SyntheticCatalogGenerator(
+                SampleCatalog.load(Path.of(arguments.get("sample", DEFAULT_SAMPLE))),
+                arguments.getLong("seed", DEFAULT_SEED),
+                arguments.getInt("brands", DEFAULT_BRANDS),
+                arguments.getInt("retailers", DEFAULT_RETAILERS),
+                arguments.getLong("key-offset", DEFAULT_KEY_OFFSET));
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl,
+                arguments.get("user", "postgres"), arguments.get("password", "postgres"))) {
+            if (arguments.getBoolean("create-schema")) {
+                createSchema(connection);
+            }
+            long started = System.nanoTime();
+            generator.seed(connection, products, arguments.getInt("batch-size", 1000));
+            if ("PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                // Reseeding leaves the replaced rows dead; clear them so consecutive runs start from the same table
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("VACUUM ANALYZE product");
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf(Locale.ROOT, "Seeded %d products in %.1fs (%.0f rows/s)%n",
+                    products, seconds, products / Math.max(seconds, 1e-9));
+        }
+    }
+
+    public long getKeyOffset() {
+        return keyOffset;
+    }
+
+    public List<String> getBrands() {
+        return brands;
+    }
+
+    public List<String> getRetailers() {
+        return retailers;
+    }
+
+    /**
+     * Product key of the product at the given index
+     */
+    public long productKey(long index) {
+        return keyOffset + index;
+    }
+
+    /**
+     * Build the product at the given index. The same seed and index always give the same product.
+     */
+    public Product product(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed, index));
+        String brand = brands.get(pick(brandCumulative, random.nextDouble()));
+        String retailer = retailers.get(pick(retailerCumulative, random.nextDouble()));
+        String name = text(random, nameWords, jitter(random, nameLengths), MAX_NAME_LENGTH);
+        String description = text(random, descriptionWords, jitter(random, descriptionLengths), Integer.MAX_VALUE);
+        return new Product(productKey(index), retailer, brand, model(random), name, price(random), description);
+    }
+
+    /**
+     * Pick a brand with the same skew as the generated catalog
+     */
+    public String sampleBrand(SplittableRandom random) {
+        return brands.get(pick(brandCumulative, random.nextDouble()));
+    }
+
+    /**
+     * Pick a word from the product name vocabulary that is useful as a search term
+     */
+    public String sampleSearchTerm(SplittableRandom random) {
+        return searchTerms[random.nextInt(searchTerms.length)];
+    }
+
+    /**
+     * Write brands, retailers and the first count products. Existing products in the generated
+     * key range are replaced, so seeding is repeatable against the same database.
+     */
+    public void seed(Connection connection, long count, int batchSize) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Map<String, Integer> brandIds = ensureDimension(connection, "brand", "brand_id", "brand_name", "brand_key", brands);
+            Map<String, Integer> retailerIds = ensureDimension(connection, "retailer", "retailer_id", "retailer_name", "retailer_key", retailers);
+
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM product WHERE product_key >= ? AND product_key < ?")) {
+                delete.setLong(1, productKey(0));
+                delete.setLong(2, productKey(count));
+                delete.executeUpdate();
+            }
+            connection.commit();
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO product (product_key, retailer_id, brand_id, model, product_name, product_price, product_description) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (long index = 0; index < count; index++) {
+                    Product product = product(index);
+                    insert.setLong(1, product.getProductKey());
+                    insert.setInt(2, retailerIds.get(key(product.getRetailer())));
+                    insert.setInt(3, brandIds.get(key(product.getBrand())));
+                    insert.setString(4, product.getModel());
+                    insert.setString(5, product.getProductName());
+                    insert.setBigDecimal(6, product.getPrice());
+                    insert.setString(7, product.getProductDescription());
+                    insert.addBatch();
+                    if ((index + 1) % batchSize == 0 || index == count - 1) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Create the tables with portable DDL, for databases (such as H2) that db/schema.sql does not target
+     */
+    public static void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS retailer (retailer_id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "retailer_name varchar(64) NOT NULL, retailer_key varchar(128) NOT NULL, "
+                    + "CONSTRAINT retailer_key_uk UNIQUE (retailer_key))");
+            statement.execute("CREATE TABLE IF NOT EXISTS brand (brand_id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "brand_name varchar(64) NOT NULL, brand_key varchar(128) NOT NULL, "
+                    + "CONSTRAINT brand_key_uk UNIQUE (brand_key))");
+            statement.execute("CREATE TABLE IF NOT EXISTS product (product_key bigint NOT NULL PRIMARY KEY, "
+                    + "retailer_id integer REFERENCES retailer (retailer_id), brand_id integer REFERENCES brand (brand_id), "
+                    + "model varchar(32), product_name varchar(128) NOT NULL, product_price numeric(32,2) NOT NULL DEFAULT 0.00, "
+                    + "product_description text)");
+            statement.execute("CREATE INDEX IF NOT EXISTS product_brand_id_idx ON product (brand_id)");
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    private static Map<String, Integer> ensureDimension(Connection connection, String table, String idColumn,
+                                                        String nameColumn, String keyColumn,
+                                                        List<String> names) throws SQLException {
+        Map<String, Integer> ids = readDimension(connection, table, idColumn, nameColumn);
+        List<String> missing = names.stream().filter(name -> !ids.containsKey(key(name))).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + table + " (" + nameColumn + ", " + keyColumn + ") VALUES (?, ?)")) {
+                for (String name : missing) {
+                    insert.setString(1, name);
+                    insert.setString(2, key(name));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+            ids.putAll(readDimension(connection, table, idColumn, nameColumn));
+        }
+        return ids;
+    }
+
+    private static Map<String, Integer> readDimension(Connection connection, String table, String idColumn,
+                                                      String nameColumn) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT " + idColumn + ", " + nameColumn + " FROM " + table)) {
+            while (rows.next()) {
+                ids.put(key(rows.getString(2)), rows.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The sample names in frequency order, padded with made-up names to the requested size
+     */
+    private List<String> dimension(List<String> sampleNames, int size, String[] suffixes, SplittableRandom random) {
+        List<String> names = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String name : sampleNames) {
+            if (names.size() < size && seen.add(key(name))) {
+                names.add(name);
+            }
+        }
+        while (names.size() < size) {
+            String word = sampleSearchTerm(random);
+            String name = Character.toUpperCase(word.charAt(0)) + word.substring(1).toLowerCase(Locale.ROOT)
+                    + " " + suffixes[random.nextInt(suffixes.length)];
+            if (random.nextInt(4) == 0) {
+                name = name + " " + (1 + random.nextInt(99));
+            }
+            if (name.length() <= MAX_DIMENSION_LENGTH && seen.add(key(name))) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static double[] zipf(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, double uniform) {
+        int index = Arrays.binarySearch(cumulative, uniform);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private static int jitter(SplittableRandom random, int[] lengths) {
+        int length = lengths[random.nextInt(lengths.length)];
+        return Math.max(1, (int) Math.round(length * (0.9 + 0.2 * random.nextDouble())));
+    }
+
+    private static String text(SplittableRandom random, String[] words, int targetLength, int maxLength) {
+        StringBuilder text = new StringBuilder(targetLength + 16);
+        while (text.length() < targetLength) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(words[random.nextInt(words.length)]);
+        }
+        if (text.length() > maxLength) {
+            int cut = text.lastIndexOf(" ", maxLength);
+            text.setLength(cut > 0 ? cut : maxLength);
+        }
+        return text.toString();
+    }
+
+    private static String model(SplittableRandom random) {
+        int length = 5 + random.nextInt(8);
+        StringBuilder model = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            model.append(MODEL_CHARACTERS.charAt(random.nextInt(MODEL_CHARACTERS.length())));
+        }
+        return model.toString();
+    }
+
+    private static BigDecimal price(SplittableRandom random) {
+        double price = Math.exp(PRICE_LOG_MEAN + PRICE_LOG_SD * random.nextGaussian());
+        return BigDecimal.valueOf(Math.min(Math.max(price, 0.99), 99_999.99)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static long mix(long seed, long index) {
+        // SplitMix64 finalizer, so neighbouring indexes get unrelated streams
+        long z = seed * 0x9E3779B97F4A7C15L + index;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Brand/retailer frequencies, text length distributions and vocabulary taken from the sample catalog
+     */
+    public static final class SampleCatalog {
+        private final List<String> brands;
+        private final List<String> retailers;
+        private final int[] nameLengths;
+        private final int[] descriptionLengths;
+        private final String[] nameWords;
+        private final String[] descriptionWords;
+
+        private SampleCatalog(List<String> brands, List<String> retailers, int[] nameLengths,
+                              int[] descriptionLengths, String[] nameWords, String[] descriptionWords) {
+            this.brands = brands;
+            this.retailers = retailers;
+            this.nameLengths = nameLengths;
+            this.descriptionLengths = descriptionLengths;
+            this.nameWords = nameWords;
+            this.descriptionWords = descriptionWords;
+        }
+
+        /**
+         * Load docs/products.json (a JSON array of products with brand, retailer, product_name
+         * and product_description fields)
+         */
+        public static SampleCatalog load(Path path) throws IOException {
+            JsonNode products = new ObjectMapper().readTree(path.toFile());
+            Map<String, Integer> brandCounts = new LinkedHashMap<>();
+            Map<String, Integer> retailerCounts = new LinkedHashMap<>();
+            List<Integer> nameLengths = new ArrayList<>();
+            List<Integer> descriptionLengths = new ArrayList<>();
+            List<String> nameWords = new ArrayList<>();
+            List<String> descriptionWords = new ArrayList<>();
+
+            for (JsonNode product : products) {
+                brandCounts.merge(product.path("brand").asText(), 1, Integer::sum);
+                retailerCounts.merge(product.path("retailer").asText(), 1, Integer::sum);
+                String name = product.path("product_name").asText();
+                String description = product.path("product_description").asText();
+                nameLengths.add(name.length());
+                descriptionLengths.add(description.length());
+                nameWords.addAll(Arrays.asList(name.trim().split("\\s+")));
+                descriptionWords.addAll(Arrays.asList(description.trim().split("\\s+")));
+            }
+            if (nameWords.isEmpty()) {
+                throw new IllegalArgumentException("Sample catalog is empty: " + path);
+            }
+            return new SampleCatalog(byFrequency(brandCounts), byFrequency(retailerCounts),
+                    nameLengths.stream().mapToInt(Integer::intValue).toArray(),
+                    descriptionLengths.stream().mapToInt(Integer::intValue).toArray(),
+                    nameWords.toArray(new String[0]), descriptionWords.toArray(new String[0]));
+        }
+
+        private static List<String> byFrequency(Map<String, Integer> counts) {
+            return counts.entrySet().stream()
+                    .filter(entry -> !entry.getKey().isBlank())
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.productcatalog.loadtest;
+
+import com.productcatalog.entity.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticCatalogGeneratorTest {
+
+    private static SyntheticCatalogGenerator.SampleCatalog sample;
+
+    @BeforeAll
+    static void loadSample() throws Exception {
+        sample = SyntheticCatalogGenerator.SampleCatalog.load(Path.of(SyntheticCatalogGenerator.DEFAULT_SAMPLE));
+    }
+
+    @Test
+    void product_WithSameSeed_ShouldBeReproducible() {
+        // Given
+        SyntheticCatalogGenerator first = new SyntheticCatalogGenerator(sample, 7L, 500, 10, 1000L);
+        SyntheticCatalogGenerator second = new SyntheticCatalogGenerator(sample, 7L, 500, 10, 1000L);
+
+        // When & Then
+        assertEquals(first.getBrands(), second.getBrands());
+        for (long index = 0; index < 100; index++) {
+            Product expected = first.product(index);
+            Product actual = second.product(index);
+            assertEquals(1000L + index, actual.getProductKey());
+            assertEquals(expected.getBrand(), actual.getBrand());
+            assertEquals(expected.getProductName(), actual.getProductName());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getProductDescription(), actual.getProductDescription());
+            assertTrue(actual.getProductName().length() <= 96);
+        }
+    }
+
+    @Test
+    void product_ShouldSkewTowardsTheMostCommonSampleBrand() {
+        // Given
+        SyntheticCatalogGenerator generator = new SyntheticCatalogGenerator(sample, 42L, 2000, 20, 0L);
+        Map<String, Integer> counts = new HashMap<>();
+
+        // When
+        for (long index = 0; index < 20_000; index++) {
+            counts.merge(generator.product(index).getBrand(), 1, Integer::sum);
+        }
+
+        // Then
+        String topBrand = generator.getBrands().get(0);
+        assertEquals("Stupell Industries", topBrand);
+        int top = counts.get(topBrand);
+        assertTrue(top > 20_000 / 20, "top brand should hold well over its uniform share, got " + top);
+        assertTrue(counts.values().stream().allMatch(count -> count <= top));
+    }
+
+    @Test
+    void seed_ShouldWriteDimensionsAndProductsAndBeRepeatable() throws Exception {
+        // Given
+        SyntheticCatalogGenerator generator = new SyntheticCatalogGenerator(sample, 42L, 50, 5, 100L);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:generator;MODE=PostgreSQL", "sa", "")) {
+            SyntheticCatalogGenerator.createSchema(connection);
+
+            // When
+            generator.seed(connection, 250, 100);
+            generator.seed(connection, 250, 100);
+
+            // Then
+            assertEquals(250L, count(connection, "SELECT COUNT(*) FROM product"));
+            assertEquals(50L, count(connection, "SELECT COUNT(*) FROM brand"));
+            assertEquals(5L, count(connection, "SELECT COUNT(*) FROM retailer"));
+            assertEquals(0L, count(connection, "SELECT COUNT(*) FROM product WHERE brand_id IS NULL OR retailer_id IS NULL"));
+        }
+    }
+
+    @Test
+    void constructor_WithoutUsableSearchTerms_ShouldRejectSample(@TempDir Path directory) throws Exception {
+        // Given
+        Path products = directory.resolve("products.json");
+        Files.writeString(products, "[{\"brand\": \"Acme\", \"retailer\": \"Shop\", "
+                + "\"product_name\": \"Big 2x4 Kit\", \"product_description\": \"A kit\"}]");
+        SyntheticCatalogGenerator.SampleCatalog shortWords = SyntheticCatalogGenerator.SampleCatalog.load(products);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticCatalogGenerator(shortWords, 42L, 10, 2, 0L));
+    }
+
+    @Test
+    void sampleSearchTerm_ShouldOnlyReturnWordsOfFourOrMoreLetters() {
+        // Given
+        SyntheticCatalogGenerator generator = new SyntheticCatalogGenerator(sample, 42L, 50, 5, 0L);
+        SplittableRandom random = new SplittableRandom(1L);
+
+        // When & Then
+        for (int i = 0; i < 1000; i++) {
+            String term = generator.sampleSearchTerm(random);
+            assertTrue(term.length() >= 4 && term.chars().allMatch(Character::isLetter), term);
+        }
+    }
+
+    private static long count(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.productcatalog.monitoring;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Assertions for pinning the number of JDBC statements a piece of code or an HTTP request
+ * runs. The MockMvc matchers read the X-Query-* headers, so the test context needs
+ * productcatalog.query-budget.headers=true.
+ */
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+    }
+
+    /**
+     * Run the action and fail unless it executed exactly the expected number of statements
+     */
+    public static <T> T assertStatementCount(long expected, Supplier<T> action) {
+        try (QueryStats stats = QueryStats.start()) {
+            T result = action.get();
+            assertEquals(expected, stats.getStatementCount(), () -> "Unexpected statement count: " + stats);
+            return result;
+        }
+    }
+
+    /**
+     * Run the action and fail if it executed more than the given number of statements
+     */
+    public static <T> T assertMaxStatements(long max, Supplier<T> action) {
+        try (QueryStats stats = QueryStats.start()) {
+            T result = action.get();
+            assertTrue(stats.getStatementCount() <= max, () -> "Expected at most " + max + " statements: " + stats);
+            return result;
+        }
+    }
+
+    public static ResultMatcher statementCount(long expected) {
+        return result -> assertEquals(String.valueOf(expected),
+                result.getResponse().getHeader(QueryBudgetFilter.HEADER_STATEMENTS), "Unexpected statement count");
+    }
+
+    public static ResultMatcher maxStatements(long max) {
+        return result -> {
+            String header = result.getResponse().getHeader(QueryBudgetFilter.HEADER_STATEMENTS);
+            assertNotNull(header, "No " + QueryBudgetFilter.HEADER_STATEMENTS + " header; are query budget headers enabled?");
+            assertTrue(Long.parseLong(header) <= max, "Expected at most " + max + " statements but ran " + header);
+        };
+    }
+
+    public static ResultMatcher withinBudget() {
+        return result -> assertNull(result.getResponse().getHeader(QueryBudgetFilter.HEADER_EXCEEDED),
+                "Request exceeded its query budget");
+    }
+}
@@ -0,0 +1,94 @@
+package com.productcatalog.monitoring;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.productcatalog.monitoring.QueryAssertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountingDataSourcePostProcessorTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(QueryCountingDataSourcePostProcessor.class, 500L);
+
+    @Test
+    void postProcess_ShouldCountStatementsAndKeepThePoolReachable() {
+        contextRunner.withUserConfiguration(SingleDataSource.class).run(context -> {
+            // Given
+            DataSource dataSource = context.getBean(DataSource.class);
+
+            // When
+            Integer one = assertStatementCount(1,
+                    () -> new JdbcTemplate(dataSource).queryForObject("SELECT 1", Integer.class));
+
+            // Then
+            assertEquals(1, one);
+            assertFalse(dataSource instanceof HikariDataSource);
+            assertInstanceOf(HikariDataSource.class, dataSource.unwrap(HikariDataSource.class));
+            assertNotNull(DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class));
+        });
+    }
+
+    @Test
+    void contextClose_ShouldCloseTheWrappedPool() {
+        // Given
+        AtomicReference<HikariDataSource> pool = new AtomicReference<>();
+
+        // When
+        contextRunner.withUserConfiguration(SingleDataSource.class).run(context -> {
+            pool.set(context.getBean(DataSource.class).unwrap(HikariDataSource.class));
+            new JdbcTemplate(pool.get()).queryForObject("SELECT 1", Integer.class);
+        });
+
+        // Then
+        assertTrue(pool.get().isClosed());
+    }
+
+    @Test
+    void postProcess_WithSeveralDataSources_ShouldOnlyWrapThePrimary() {
+        contextRunner.withUserConfiguration(SeveralDataSources.class).run(context -> {
+            // Then
+            assertFalse(context.getBean("primaryDataSource") instanceof HikariDataSource);
+            assertInstanceOf(HikariDataSource.class, context.getBean("secondaryDataSource"));
+        });
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name);
+        dataSource.setUsername("sa");
+        return dataSource;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class SingleDataSource {
+        @Bean
+        HikariDataSource dataSource() {
+            return h2("counting");
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class SeveralDataSources {
+        @Bean
+        @Primary
+        HikariDataSource primaryDataSource() {
+            return h2("primary");
+        }
+
+        @Bean
+        HikariDataSource secondaryDataSource() {
+            return h2("secondary");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.CatalogJobStatusDto;
+import com.productcatalog.entity.CatalogJobCheckpoint;
+import com.productcatalog.entity.Product;
+import com.productcatalog.repository.BrandRepository;
+import com.productcatalog.repository.CatalogJobCheckpointRepository;
+import com.productcatalog.repository.ProductRepository;
+import com.productcatalog.repository.RetailerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogJobServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CatalogJobCheckpointRepository checkpointRepository;
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private RetailerRepository retailerRepository;
+
+    private final ConcurrentLinkedQueue<Long> processedKeys = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch processingStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseProcessing = new CountDownLatch(1);
+    private CatalogJobService catalogJobService;
+
+    @BeforeEach
+    void setUp() {
+        List<Long> keys = LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList());
+        // Unused by the tests that never start a job
+        lenient().when(productRepository.findProductKeysAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterKey = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return keys.stream().filter(key -> key > afterKey).limit(pageable.getPageSize()).collect(Collectors.toList());
+        });
+        lenient().when(productRepository.findByProductKeyBetweenOrderByProductKey(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long fromKey = invocation.getArgument(0);
+            long toKey = invocation.getArgument(1);
+            return keys.stream().filter(key -> key >= fromKey && key <= toKey)
+                    .map(key -> new Product(key, "Retailer", "Brand", "Model", "Product " + key,
+                            BigDecimal.ONE, "Description"))
+                    .collect(Collectors.toList());
+        });
+
+        CatalogTask recordingTask = new CatalogTask() {
+            @Override
+            public String getName() {
+                return "record";
+            }
+
+            @Override
+            public long process(List<Product> products) {
+                products.forEach(product -> processedKeys.add(product.getProductKey()));
+                return products.stream().filter(product -> product.getProductKey() % 5 == 0).count();
+            }
+        };
+        CatalogTask blockingTask = new CatalogTask() {
+            @Override
+            public String getName() {
+                return "blocking";
+            }
+
+            @Override
+            public long process(List<Product> products) {
+                processingStarted.countDown();
+                try {
+                    releaseProcessing.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                products.forEach(product -> processedKeys.add(product.getProductKey()));
+                return 0;
+            }
+        };
+        catalogJobService = new CatalogJobService(productRepository, checkpointRepository,
+                new DimensionDictionary(brandRepository, retailerRepository), List.of(recordingTask, blockingTask),
+                2, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogJobService.shutdown();
+    }
+
+    @Test
+    void start_ShouldProcessEveryProductAndCheckpointCompletion() throws Exception {
+        // When
+        catalogJobService.start("record", true);
+        CatalogJobStatusDto status = awaitFinished("record");
+
+        // Then
+        assertEquals(CatalogJobService.STATE_COMPLETED, status.getState());
+        assertEquals(10L, status.getRowsProcessed());
+        assertEquals(2L, status.getIssuesFound());
+        assertEquals(4L, status.getChunksCompleted());
+        assertEquals(10L, status.getLastProductKey());
+        assertEquals(10, processedKeys.size());
+
+        ArgumentCaptor<CatalogJobCheckpoint> checkpoints = ArgumentCaptor.forClass(CatalogJobCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(checkpoints.capture());
+        CatalogJobCheckpoint last = checkpoints.getValue();
+        assertTrue(last.isCompleted());
+        assertEquals(10L, last.getLastProductKey());
+        assertEquals(10L, last.getRowsProcessed());
+    }
+
+    @Test
+    void start_WithCheckpoint_ShouldResumeAfterLastProductKey() throws Exception {
+        // Given
+        when(checkpointRepository.findById("record"))
+                .thenReturn(Optional.of(new CatalogJobCheckpoint("record", 6L, 6L, false)));
+
+        // When
+        catalogJobService.start("record", true);
+        CatalogJobStatusDto status = awaitFinished("record");
+
+        // Then
+        assertEquals(CatalogJobService.STATE_COMPLETED, status.getState());
+        assertEquals(10L, status.getRowsProcessed());
+        assertEquals(List.of(7L, 8L, 9L, 10L), processedKeys.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void cancel_ShouldStopAfterChunksInFlightAndKeepCheckpoint() throws Exception {
+        // Given
+        catalogJobService.start("blocking", false);
+        assertTrue(processingStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        CatalogJobStatusDto cancelling = catalogJobService.cancel("blocking");
+        releaseProcessing.countDown();
+        CatalogJobStatusDto status = awaitFinished("blocking");
+
+        // Then
+        assertEquals(CatalogJobService.STATE_RUNNING, cancelling.getState());
+        assertEquals(CatalogJobService.STATE_CANCELLED, status.getState());
+        assertTrue(processedKeys.size() < 10, "cancelled job processed every product");
+        // Whether a checkpoint was saved depends on which in-flight chunk ran first; none may be final
+        verify(checkpointRepository, never()).save(argThat(CatalogJobCheckpoint::isCompleted));
+        assertThrows(IllegalStateException.class, () -> catalogJobService.cancel("blocking"));
+    }
+
+    @Test
+    void start_WhileRunning_ShouldThrowWithoutReadingCheckpoint() throws Exception {
+        // Given
+        catalogJobService.start("blocking", false);
+        assertTrue(processingStarted.await(5, TimeUnit.SECONDS));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> catalogJobService.start("blocking", true));
+        verify(checkpointRepository, never()).findById(any());
+        releaseProcessing.countDown();
+        awaitFinished("blocking");
+    }
+
+    @Test
+    void start_WithUnknownJob_ShouldThrowException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> catalogJobService.start("unknown", true));
+    }
+
+    private CatalogJobStatusDto awaitFinished(String jobName) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        CatalogJobStatusDto status = catalogJobService.getStatus(jobName);
+        while (CatalogJobService.STATE_RUNNING.equals(status.getState())) {
+            assertTrue(System.nanoTime() < deadline, "job did not finish");
+            Thread.sleep(10);
+            status = catalogJobService.getStatus(jobName);
+        }
+        return status;
+    }
+}
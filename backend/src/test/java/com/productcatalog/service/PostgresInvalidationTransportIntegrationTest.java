@@ -0,0 +1,249 @@
+package com.productcatalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcatalog.dto.ProductChangeDto;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs PostgresInvalidationTransport against a real PostgreSQL with the tables from
+ * db/schema.sql: the database named by TEST_POSTGRES_URL (with TEST_POSTGRES_USER and
+ * TEST_POSTGRES_PASSWORD) when set, otherwise a container. Skipped when neither is available.
+ */
+@EnabledIf("databaseAvailable")
+class PostgresInvalidationTransportIntegrationTest {
+
+    private static PostgreSQLContainer<?> postgres;
+    private static DataSourceProperties properties;
+
+    private final List<PostgresInvalidationTransport> transports = new ArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HikariDataSource dataSource;
+    private TransactionTemplate transactionTemplate;
+
+    static boolean databaseAvailable() {
+        return System.getenv("TEST_POSTGRES_URL") != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeAll
+    static void startDatabase() {
+        properties = new DataSourceProperties();
+        String url = System.getenv("TEST_POSTGRES_URL");
+        if (url != null) {
+            properties.setUrl(url);
+            properties.setUsername(System.getenv("TEST_POSTGRES_USER"));
+            properties.setPassword(System.getenv("TEST_POSTGRES_PASSWORD"));
+        } else {
+            postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+            postgres.start();
+            properties.setUrl(postgres.getJdbcUrl());
+            properties.setUsername(postgres.getUsername());
+            properties.setPassword(postgres.getPassword());
+        }
+        try (HikariDataSource schemaDataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build()) {
+            new ResourceDatabasePopulator(new FileSystemResource("../db/schema.sql")).execute(schemaDataSource);
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transports.forEach(PostgresInvalidationTransport::stop);
+        new JdbcTemplate(dataSource).update("DELETE FROM product_change_log WHERE node_id LIKE 'node-%'");
+        dataSource.close();
+    }
+
+    @Test
+    void publish_ShouldDeliverInOrderToListenerOutsideThePool() throws Exception {
+        // Given
+        PostgresInvalidationTransport sender = transport(600_000);
+        BlockingQueue<String> received = listen(transport(600_000));
+
+        // When
+        sender.publish(List.of(change("node-a", 1, "one"), change("node-a", 2, "two"), heartbeat("node-a", 2)));
+
+        // Then
+        assertEquals("one", received.poll(10, TimeUnit.SECONDS));
+        assertEquals("two", received.poll(10, TimeUnit.SECONDS));
+        assertEquals("heartbeat", received.poll(10, TimeUnit.SECONDS));
+        assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @Test
+    void publish_InsideTransaction_ShouldSendAndRetainOnlyOnCommit() throws Exception {
+        // Given
+        PostgresInvalidationTransport sender = transport(600_000);
+        BlockingQueue<String> received = listen(transport(600_000));
+        List<String> beforeCommit = new ArrayList<>();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            sender.publish(List.of(change("node-a", 1, "rolled back")));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            sender.publish(List.of(change("node-a", 2, "committed")));
+            try {
+                String early = received.poll(500, TimeUnit.MILLISECONDS);
+                if (early != null) {
+                    beforeCommit.add(early);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Then
+        assertEquals(List.of(), beforeCommit);
+        assertEquals("committed", received.poll(10, TimeUnit.SECONDS));
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(new CacheInvalidationTransport.Retained(2, 2), sender.retainedVersions().get("node-a"));
+    }
+
+    @Test
+    void replay_ShouldReturnRetainedChangesButNotHeartbeats() {
+        // Given
+        PostgresInvalidationTransport transport = transport(600_000);
+
+        // When
+        transport.publish(List.of(change("node-a", 1, "one"), change("node-a", 2, "two"), heartbeat("node-a", 2)));
+
+        // Then
+        assertEquals(new CacheInvalidationTransport.Retained(1, 2), transport.retainedVersions().get("node-a"));
+        assertEquals(List.of("one", "two"), transport.replay("node-a", 0, 2));
+        assertEquals(List.of("two"), transport.replay("node-a", 1, 5));
+    }
+
+    @Test
+    void pruneLog_ShouldDropChangesOlderThanRetention() {
+        // Given
+        PostgresInvalidationTransport transport = transport(0);
+        transport.publish(List.of(change("node-a", 1, "one")));
+
+        // When
+        transport.pruneLog();
+
+        // Then
+        assertFalse(transport.retainedVersions().containsKey("node-a"));
+    }
+
+    @Test
+    void listen_WhenConnectionIsKilled_ShouldReconnectAndReset() throws Exception {
+        // Given
+        PostgresInvalidationTransport transport = transport(600_000);
+        CountDownLatch listening = new CountDownLatch(1);
+        CountDownLatch relistening = new CountDownLatch(2);
+        transport.start(message -> { }, () -> {
+            listening.countDown();
+            relistening.countDown();
+        });
+        assertTrue(listening.await(10, TimeUnit.SECONDS));
+
+        // When
+        new JdbcTemplate(dataSource).queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query LIKE 'LISTEN %'");
+
+        // Then
+        assertTrue(relistening.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void broadcaster_WhenNotificationIsLost_ShouldReplayItFromTheLogAtTheNextHeartbeat() throws Exception {
+        // Given
+        ProductChangeListener listener = mock(ProductChangeListener.class);
+        CountDownLatch listening = new CountDownLatch(1);
+        PostgresInvalidationTransport receiverTransport = transport(600_000);
+        ProductChangeBroadcaster receiver = new ProductChangeBroadcaster(receiverTransport, List.of(listener),
+                objectMapper, new SimpleMeterRegistry(), 60_000, 60_000);
+        receiverTransport.start(receiver::receive, () -> {
+            receiver.reset();
+            listening.countDown();
+        });
+        assertTrue(listening.await(10, TimeUnit.SECONDS));
+        PostgresInvalidationTransport sender = transport(600_000);
+
+        // When
+        sender.publish(List.of(productChange(1, ProductChangeBroadcaster.TYPE_CREATED)));
+        // Logged but never notified, as if the listener had missed it
+        new JdbcTemplate(dataSource).update("INSERT INTO product_change_log (node_id, version, message) VALUES (?, ?, ?)",
+                "node-a", 2L, productChange(2, ProductChangeBroadcaster.TYPE_UPDATED).body());
+        sender.publish(List.of(productChange(2, ProductChangeBroadcaster.TYPE_HEARTBEAT)));
+
+        // Then
+        ArgumentCaptor<ProductChangeDto> applied = ArgumentCaptor.forClass(ProductChangeDto.class);
+        verify(listener, timeout(10_000).times(2)).onRemoteChange(applied.capture());
+        assertEquals(List.of(1L, 2L), applied.getAllValues().stream().map(ProductChangeDto::getVersion).toList());
+        verify(listener, times(1)).resync();
+    }
+
+    private PostgresInvalidationTransport transport(long logRetentionMillis) {
+        PostgresInvalidationTransport transport = new PostgresInvalidationTransport(dataSource, transactionTemplate,
+                properties, "product_changes_test", 100, logRetentionMillis);
+        transports.add(transport);
+        return transport;
+    }
+
+    private static BlockingQueue<String> listen(PostgresInvalidationTransport transport) throws InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        CountDownLatch listening = new CountDownLatch(1);
+        transport.start(received::add, listening::countDown);
+        assertTrue(listening.await(10, TimeUnit.SECONDS));
+        return received;
+    }
+
+    private CacheInvalidationTransport.Message productChange(long version, String type) throws Exception {
+        ProductChangeDto change = new ProductChangeDto();
+        change.setNodeId("node-a");
+        change.setVersion(version);
+        change.setType(type);
+        change.setProductKey(42L);
+        return new CacheInvalidationTransport.Message("node-a", version,
+                !ProductChangeBroadcaster.TYPE_HEARTBEAT.equals(type), objectMapper.writeValueAsString(change));
+    }
+
+    private static CacheInvalidationTransport.Message change(String nodeId, long version, String body) {
+        return new CacheInvalidationTransport.Message(nodeId, version, true, body);
+    }
+
+    private static CacheInvalidationTransport.Message heartbeat(String nodeId, long version) {
+        return new CacheInvalidationTransport.Message(nodeId, version, false, "heartbeat");
+    }
+}
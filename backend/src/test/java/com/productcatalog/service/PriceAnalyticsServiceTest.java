@@ -0,0 +1,198 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.PriceStatisticsDto;
+import com.productcatalog.entity.Product;
+import com.productcatalog.repository.BrandRepository;
+import com.productcatalog.repository.ProductRepository;
+import com.productcatalog.repository.RetailerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceAnalyticsServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private RetailerRepository retailerRepository;
+
+    private PriceAnalyticsService priceAnalyticsService;
+
+    // Rows of the product table as (product key, brand id, retailer id, price)
+    private final List<Object[]> catalog = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        priceAnalyticsService = new PriceAnalyticsService(productRepository,
+                new DimensionDictionary(brandRepository, retailerRepository));
+        catalog.add(new Object[]{1L, 1, 1, new BigDecimal("10.00")});
+        catalog.add(new Object[]{2L, 1, 1, new BigDecimal("20.00")});
+        lenient().when(productRepository.getProductKeyRange()).thenAnswer(invocation -> keyRange());
+        lenient().when(productRepository.findPricePointsAfter(anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> pricePoints(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2)));
+        lenient().when(productRepository.getGroupPrices(any(), any()))
+                .thenAnswer(invocation -> groupPrices(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    @Test
+    void recompute_DuringWrite_ShouldSwapAfterItAndNotCountTheChangeTwice() throws Exception {
+        // Given
+        priceAnalyticsService.getPriceStatistics("brand", 0);
+        Product product = product(new BigDecimal("30.00"));
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> priceAnalyticsService.write(() -> {
+            catalog.add(new Object[]{3L, 1, 1, product.getPrice()});
+            committed.countDown();
+            await(release);
+            priceAnalyticsService.productAdded(product);
+            return null;
+        }));
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<Long> recompute = CompletableFuture.supplyAsync(() -> priceAnalyticsService.recompute(false));
+
+        // Then
+        assertThrows(TimeoutException.class, () -> recompute.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        write.get(5, TimeUnit.SECONDS);
+        assertEquals(3L, recompute.get(5, TimeUnit.SECONDS));
+        PriceStatisticsDto stats = priceAnalyticsService.getPriceStatistics("brand", 0).get(0);
+        assertEquals(3L, stats.getCount());
+        assertEquals(new BigDecimal("20.00"), stats.getAvgPrice());
+    }
+
+    @Test
+    void getPriceStatistics_AfterLowestPriceRemoved_ShouldReloadGroupForExactMin() {
+        // Given
+        catalog.add(new Object[]{3L, 1, 1, new BigDecimal("10.05")});
+        priceAnalyticsService.getPriceStatistics("brand", 0);
+        when(productRepository.getGroupPrices(1, 1))
+                .thenReturn(List.of(new BigDecimal("10.05"), new BigDecimal("20.00")));
+
+        // When
+        priceAnalyticsService.productRemoved(product(new BigDecimal("10.00")));
+        PriceStatisticsDto stats = priceAnalyticsService.getPriceStatistics("brand", 0).get(0);
+
+        // Then
+        assertEquals(new BigDecimal("10.05"), stats.getMinPrice());
+        assertEquals(new BigDecimal("20.00"), stats.getMaxPrice());
+        assertEquals(2L, stats.getCount());
+        verify(productRepository).getGroupPrices(1, 1);
+        verify(productRepository, times(1)).getProductKeyRange();
+    }
+
+    @Test
+    void recompute_WhileReadingCatalog_ShouldNotBlockWrites() throws Exception {
+        // Given
+        priceAnalyticsService.getPriceStatistics("brand", 0);
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findPricePointsAfter(anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    List<Object[]> page = pricePoints(invocation.getArgument(0), invocation.getArgument(1),
+                            invocation.getArgument(2));
+                    scanning.countDown();
+                    await(release);
+                    return page;
+                });
+        CompletableFuture<Long> recompute = CompletableFuture.supplyAsync(() -> priceAnalyticsService.recompute(false));
+        assertTrue(scanning.await(5, TimeUnit.SECONDS));
+        Product product = product(new BigDecimal("30.00"));
+
+        // When
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> priceAnalyticsService.write(() -> {
+            catalog.add(new Object[]{3L, 1, 1, product.getPrice()});
+            priceAnalyticsService.productAdded(product);
+            return null;
+        }));
+
+        // Then
+        write.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        assertEquals(2L, recompute.get(5, TimeUnit.SECONDS));
+        PriceStatisticsDto stats = priceAnalyticsService.getPriceStatistics("brand", 0).get(0);
+        assertEquals(3L, stats.getCount());
+        assertEquals(new BigDecimal("20.00"), stats.getAvgPrice());
+        assertEquals(new BigDecimal("30.00"), stats.getMaxPrice());
+    }
+
+    @Test
+    void recompute_Parallel_ShouldReadEverySliceOnce() {
+        // Given
+        for (long key = 3; key <= 1000; key++) {
+            catalog.add(new Object[]{key, (int) (key % 3), 1, new BigDecimal("5.00")});
+        }
+
+        // When
+        long rows = priceAnalyticsService.recompute(true);
+
+        // Then
+        assertEquals(1000L, rows);
+        long counted = priceAnalyticsService.getPriceStatistics("retailer", 0).get(0).getCount();
+        assertEquals(1000L, counted);
+    }
+
+    private List<Object[]> keyRange() {
+        List<Long> keys = catalog.stream().map(row -> (Long) row[0]).sorted().collect(Collectors.toList());
+        List<Object[]> range = new ArrayList<>();
+        range.add(keys.isEmpty() ? new Object[]{null, null} : new Object[]{keys.get(0), keys.get(keys.size() - 1)});
+        return range;
+    }
+
+    private List<Object[]> pricePoints(long afterKey, long toKey, Pageable page) {
+        return catalog.stream()
+                .filter(row -> (Long) row[0] > afterKey && (Long) row[0] <= toKey)
+                .sorted(Comparator.comparing(row -> (Long) row[0]))
+                .limit(page.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    private List<BigDecimal> groupPrices(Integer brandId, Integer retailerId) {
+        return catalog.stream()
+                .filter(row -> Objects.equals(row[1], brandId) && Objects.equals(row[2], retailerId))
+                .map(row -> (BigDecimal) row[3])
+                .collect(Collectors.toList());
+    }
+
+    private static Product product(BigDecimal price) {
+        Product product = new Product(1L, null, null, "Model", "Product", price, null);
+        product.setBrandId(1);
+        product.setRetailerId(1);
+        return product;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.productcatalog.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceSketchTest {
+
+    @Test
+    void quantile_ShouldStayWithinRelativeAccuracy() {
+        // Given
+        PriceSketch sketch = new PriceSketch();
+        for (long cents = 1; cents <= 100_000; cents++) {
+            sketch.add(cents);
+        }
+
+        // When & Then
+        assertWithinAccuracy(50_000, sketch.quantile(0.50));
+        assertWithinAccuracy(99_000, sketch.quantile(0.99));
+        assertWithinAccuracy(100_000, sketch.quantile(1.0));
+        assertEquals(100_000L, sketch.getCount());
+        assertEquals(BigInteger.valueOf(5_000_050_000L), sketch.getSumCents());
+    }
+
+    @Test
+    void merge_ShouldEqualSketchOfUnion() {
+        // Given
+        PriceSketch left = new PriceSketch();
+        PriceSketch right = new PriceSketch();
+        PriceSketch union = new PriceSketch();
+        for (long cents = 0; cents < 10_000; cents += 7) {
+            (cents % 2 == 0 ? left : right).add(cents);
+            union.add(cents);
+        }
+
+        // When
+        left.merge(right);
+
+        // Then
+        assertEquals(union.getCount(), left.getCount());
+        assertEquals(union.getSumCents(), left.getSumCents());
+        assertEquals(union.quantile(0.5), left.quantile(0.5));
+        assertEquals(union.histogram(10), left.histogram(10));
+        assertEquals(union.getMinCents(), left.getMinCents());
+        assertEquals(union.getMaxCents(), left.getMaxCents());
+    }
+
+    @Test
+    void remove_ShouldUndoAdd() {
+        // Given
+        PriceSketch sketch = new PriceSketch();
+        sketch.add(PriceSketch.toCents(new BigDecimal("29.99")));
+        sketch.add(PriceSketch.toCents(new BigDecimal("459.00")));
+
+        // When
+        sketch.remove(PriceSketch.toCents(new BigDecimal("459.00")));
+        sketch.remove(PriceSketch.toCents(new BigDecimal("1.00")));
+
+        // Then
+        assertEquals(1L, sketch.getCount());
+        assertEquals(BigInteger.valueOf(2999L), sketch.getSumCents());
+        assertWithinAccuracy(2999, sketch.quantile(1.0));
+    }
+
+    @Test
+    void minAndMax_ShouldBeExactPrices() {
+        // Given
+        PriceSketch sketch = new PriceSketch();
+
+        // When
+        sketch.add(PriceSketch.toCents(new BigDecimal("10.01")));
+        sketch.add(PriceSketch.toCents(new BigDecimal("459.99")));
+        sketch.add(PriceSketch.toCents(new BigDecimal("10.01")));
+        sketch.remove(PriceSketch.toCents(new BigDecimal("10.01")));
+
+        // Then
+        assertTrue(sketch.isRangeExact());
+        assertEquals(1001L, sketch.getMinCents());
+        assertEquals(45999L, sketch.getMaxCents());
+    }
+
+    @Test
+    void remove_OfOnlyLowestValue_ShouldMarkRangeInexact() {
+        // Given
+        PriceSketch sketch = new PriceSketch();
+        sketch.add(1001);
+        sketch.add(1005);
+        sketch.add(45999);
+
+        // When
+        sketch.remove(1001);
+
+        // Then
+        assertFalse(sketch.isRangeExact());
+        assertWithinAccuracy(1005, sketch.getMinCents());
+        assertEquals(2L, sketch.getCount());
+    }
+
+    @Test
+    void histogram_ShouldSplitExactRangeIntoContiguousBins() {
+        // Given
+        PriceSketch sketch = new PriceSketch();
+        sketch.add(1000);
+        sketch.add(1200);
+        sketch.add(2000);
+
+        // When
+        List<PriceSketch.Bin> histogram = sketch.histogram(2);
+
+        // Then
+        assertEquals(new PriceSketch.Bin(1000, 1500, 2), histogram.get(0));
+        assertEquals(new PriceSketch.Bin(1500, 2000, 1), histogram.get(1));
+    }
+
+    @Test
+    void quantile_OfFewValues_ShouldUseNearestRankWithinExactRange() {
+        // Given
+        PriceSketch two = new PriceSketch();
+        two.add(1000);
+        two.add(2000);
+        PriceSketch three = new PriceSketch();
+        three.add(1000);
+        three.add(1500);
+        three.add(2000);
+
+        // When & Then
+        assertEquals(1000L, two.quantile(0.50));
+        assertEquals(2000L, two.quantile(0.90));
+        assertEquals(2000L, two.quantile(0.99));
+        assertEquals(1000L, three.quantile(0.0));
+        assertWithinAccuracy(1500, three.quantile(0.50));
+        assertEquals(2000L, three.quantile(0.99));
+    }
+
+    @Test
+    void sum_PastLongRange_ShouldStayExact() {
+        // Given
+        PriceSketch sketch = new PriceSketch();
+        PriceSketch other = new PriceSketch();
+        other.add(Long.MAX_VALUE);
+
+        // When
+        sketch.add(Long.MAX_VALUE);
+        sketch.add(Long.MAX_VALUE);
+        sketch.merge(other);
+        sketch.remove(Long.MAX_VALUE);
+
+        // Then
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TWO), sketch.getSumCents());
+        assertEquals(2L, sketch.getCount());
+    }
+
+    private static void assertWithinAccuracy(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * PriceSketch.RELATIVE_ACCURACY + 1,
+                "expected ~" + expected + " but was " + actual);
+    }
+}
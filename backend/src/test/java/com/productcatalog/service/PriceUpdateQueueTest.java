@@ -0,0 +1,195 @@
+package com.productcatalog.service;
+
+import com.productcatalog.dto.PriceUpdateDto;
+import com.productcatalog.dto.PriceUpdateResultDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceUpdateQueueTest {
+
+    @Mock
+    private ProductService productService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void submit_ShouldCoalesceUpdatesToSameProductAndFlushLatestPrice() {
+        // Given
+        PriceUpdateQueue queue = newQueue(true, 10);
+        when(productService.updatePrices(anyMap())).thenReturn(Set.of(1L, 2L));
+
+        // When
+        List<PriceUpdateResultDto> results = queue.submit(Arrays.asList(
+                new PriceUpdateDto(1L, new BigDecimal("10.00")),
+                new PriceUpdateDto(2L, new BigDecimal("20.00")),
+                new PriceUpdateDto(1L, new BigDecimal("11.00"))), false);
+        queue.flush();
+
+        // Then
+        assertTrue(results.stream().allMatch(result -> PriceUpdateQueue.STATUS_QUEUED.equals(result.getStatus())));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, BigDecimal>> prices = ArgumentCaptor.forClass(Map.class);
+        verify(productService).updatePrices(prices.capture());
+        assertEquals(Map.of(1L, new BigDecimal("11.00"), 2L, new BigDecimal("20.00")), prices.getValue());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    void submit_WhenQueueCannotTakeWholeRequest_ShouldRejectAllAndQueueNothing() {
+        // Given
+        PriceUpdateQueue queue = newQueue(true, 2);
+
+        // When
+        List<PriceUpdateResultDto> results = queue.submit(Arrays.asList(
+                new PriceUpdateDto(1L, new BigDecimal("10.00")),
+                new PriceUpdateDto(2L, new BigDecimal("20.00")),
+                new PriceUpdateDto(3L, new BigDecimal("30.00"))), false);
+
+        // Then
+        assertTrue(results.stream().allMatch(result -> PriceUpdateQueue.STATUS_REJECTED.equals(result.getStatus())));
+        assertEquals(0, queue.getDepth());
+        assertEquals(3, updateCount("rejected"));
+        verify(productService, never()).updatePrices(any());
+    }
+
+    @Test
+    void submit_WithRepeatedProductsWithinCapacity_ShouldQueueAll() {
+        // Given
+        PriceUpdateQueue queue = newQueue(true, 2);
+
+        // When
+        List<PriceUpdateResultDto> results = queue.submit(Arrays.asList(
+                new PriceUpdateDto(1L, new BigDecimal("10.00")),
+                new PriceUpdateDto(2L, new BigDecimal("20.00")),
+                new PriceUpdateDto(1L, new BigDecimal("12.00"))), false);
+
+        // Then
+        assertTrue(results.stream().allMatch(result -> PriceUpdateQueue.STATUS_QUEUED.equals(result.getStatus())));
+        assertEquals(2, queue.getDepth());
+    }
+
+    @Test
+    void flush_WhenBatchFails_ShouldRequeueAndWriteOnRetry() throws Exception {
+        // Given
+        PriceUpdateQueue queue = newQueue(true, 10, 1, 3);
+        when(productService.updatePrices(anyMap()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(Set.of(1L));
+        queue.submit(List.of(new PriceUpdateDto(1L, new BigDecimal("10.00"))), false);
+
+        // When
+        queue.flush();
+        int depthAfterFailure = queue.getDepth();
+        Thread.sleep(5);
+        queue.flush();
+
+        // Then
+        assertEquals(1, depthAfterFailure);
+        assertEquals(0, queue.getDepth());
+        assertEquals(1, updateCount("retried"));
+        assertEquals(0, updateCount("failed"));
+        verify(productService, times(2)).updatePrices(Map.of(1L, new BigDecimal("10.00")));
+    }
+
+    @Test
+    void flush_WhenRetriesExhausted_ShouldDropAndCountFailure() {
+        // Given
+        PriceUpdateQueue queue = newQueue(true, 10, 1, 0);
+        when(productService.updatePrices(anyMap())).thenThrow(new IllegalStateException("database unavailable"));
+        queue.submit(List.of(new PriceUpdateDto(1L, new BigDecimal("10.00"))), false);
+
+        // When
+        queue.flush();
+
+        // Then
+        assertEquals(0, queue.getDepth());
+        assertEquals(1, updateCount("failed"));
+        assertEquals(0, updateCount("retried"));
+    }
+
+    @Test
+    void flush_WhenBatchFailsAfterNewerPriceQueued_ShouldWriteOnlyNewerPrice() {
+        // Given
+        PriceUpdateQueue queue = newQueue(true, 10, 1, 3);
+        when(productService.updatePrices(anyMap()))
+                .thenAnswer(invocation -> {
+                    queue.submit(List.of(new PriceUpdateDto(1L, new BigDecimal("11.00"))), false);
+                    throw new IllegalStateException("database unavailable");
+                })
+                .thenReturn(Set.of(1L));
+        queue.submit(List.of(new PriceUpdateDto(1L, new BigDecimal("10.00"))), false);
+
+        // When
+        queue.flush();
+
+        // Then
+        assertEquals(0, queue.getDepth());
+        assertEquals(0, updateCount("retried"));
+        verify(productService).updatePrices(Map.of(1L, new BigDecimal("11.00")));
+    }
+
+    @Test
+    void submit_OverUpdateBackingOff_ShouldWriteNewPriceWithoutDelay() {
+        // Given
+        PriceUpdateQueue queue = newQueue(true, 10, 10_000, 1);
+        when(productService.updatePrices(anyMap()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(Set.of(1L));
+        queue.submit(List.of(new PriceUpdateDto(1L, new BigDecimal("10.00"))), false);
+        queue.flush();
+
+        // When
+        queue.submit(List.of(new PriceUpdateDto(1L, new BigDecimal("12.00"))), false);
+        queue.flush();
+
+        // Then
+        assertEquals(0, queue.getDepth());
+        verify(productService).updatePrices(Map.of(1L, new BigDecimal("12.00")));
+    }
+
+    @Test
+    void submit_WhenDisabled_ShouldWriteImmediately() {
+        // Given
+        PriceUpdateQueue queue = newQueue(false, 10);
+        when(productService.updatePrices(anyMap())).thenReturn(Set.of(1L));
+
+        // When
+        List<PriceUpdateResultDto> results = queue.submit(Arrays.asList(
+                new PriceUpdateDto(1L, new BigDecimal("10.00")),
+                new PriceUpdateDto(2L, new BigDecimal("20.00"))), false);
+
+        // Then
+        assertEquals(PriceUpdateQueue.STATUS_UPDATED, results.get(0).getStatus());
+        assertEquals(PriceUpdateQueue.STATUS_NOT_FOUND, results.get(1).getStatus());
+        assertEquals(0, queue.getDepth());
+    }
+
+    private PriceUpdateQueue newQueue(boolean enabled, int capacity) {
+        return newQueue(enabled, capacity, 200, 3);
+    }
+
+    private PriceUpdateQueue newQueue(boolean enabled, int capacity, long flushIntervalMillis, int maxRetries) {
+        return new PriceUpdateQueue(productService, meterRegistry, enabled, capacity, 100, flushIntervalMillis, 1000,
+                maxRetries);
+    }
+
+    private double updateCount(String outcome) {
+        return meterRegistry.get("productcatalog.write-behind.updates").tag("outcome", outcome).counter().count();
+    }
+}
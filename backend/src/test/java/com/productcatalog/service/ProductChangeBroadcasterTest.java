@@ -0,0 +1,292 @@
+package com.productcatalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcatalog.dto.ProductChangeDto;
+import com.productcatalog.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeBroadcasterTest {
+
+    @Mock
+    private ProductChangeListener listener;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> published = new ArrayList<>();
+    private final Map<String, List<String>> retained = new HashMap<>();
+    private boolean transportDown;
+    private ProductChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        CacheInvalidationTransport transport = new CacheInvalidationTransport() {
+            @Override
+            public void publish(List<Message> messages) {
+                if (transportDown) {
+                    throw new IllegalStateException("connection refused");
+                }
+                messages.forEach(message -> published.add(message.body()));
+            }
+
+            @Override
+            public void start(Consumer<String> receiver, Runnable onReset) {
+            }
+
+            @Override
+            public void stop() {
+            }
+
+            @Override
+            public Map<String, Retained> retainedVersions() {
+                Map<String, Retained> versions = new HashMap<>();
+                retained.forEach((nodeId, messages) -> versions.put(nodeId, new Retained(1, messages.size())));
+                return versions;
+            }
+
+            @Override
+            public List<String> replay(String nodeId, long afterVersion, long upToVersion) {
+                List<String> messages = retained.getOrDefault(nodeId, List.of());
+                return messages.subList((int) Math.min(afterVersion, messages.size()),
+                        (int) Math.min(upToVersion, messages.size()));
+            }
+        };
+        broadcaster = new ProductChangeBroadcaster(transport, List.of(listener), objectMapper, new SimpleMeterRegistry(),
+                60_000, 60_000);
+    }
+
+    @Test
+    void productsUpdated_ShouldStampConsecutiveVersionsAndCarryOldAndNewPrice() throws Exception {
+        // Given
+        Product before = product(1L, "10.00");
+        Product after = product(1L, "12.50");
+
+        // When
+        broadcaster.productSaved(null, before);
+        broadcaster.productsUpdated(List.of(before, before), List.of(after, after));
+
+        // Then
+        assertEquals(3, published.size());
+        ProductChangeDto created = objectMapper.readValue(published.get(0), ProductChangeDto.class);
+        ProductChangeDto updated = objectMapper.readValue(published.get(2), ProductChangeDto.class);
+        assertEquals(ProductChangeBroadcaster.TYPE_CREATED, created.getType());
+        assertEquals(broadcaster.getNodeId(), created.getNodeId());
+        assertEquals(1L, created.getVersion());
+        assertEquals(ProductChangeBroadcaster.TYPE_UPDATED, updated.getType());
+        assertEquals(3L, updated.getVersion());
+        assertEquals(new BigDecimal("10.00"), updated.getPreviousPrice());
+        assertEquals(new BigDecimal("12.50"), updated.getPrice());
+        assertEquals(7, updated.getBrandId());
+    }
+
+    @Test
+    void receive_ShouldApplyChangesFromOtherNodesInOrderAndSkipOwnAndDuplicates() throws Exception {
+        // Given
+        broadcaster.productSaved(null, product(1L, "10.00"));
+        String own = published.get(0);
+
+        // When
+        broadcaster.receive(own);
+        broadcaster.receive(message("node-b", 1, ProductChangeBroadcaster.TYPE_CREATED));
+        broadcaster.receive(message("node-b", 2, ProductChangeBroadcaster.TYPE_DELETED));
+        broadcaster.receive(message("node-b", 2, ProductChangeBroadcaster.TYPE_DELETED));
+
+        // Then
+        ArgumentCaptor<ProductChangeDto> applied = ArgumentCaptor.forClass(ProductChangeDto.class);
+        verify(listener, times(2)).onRemoteChange(applied.capture());
+        assertEquals(List.of(1L, 2L), applied.getAllValues().stream().map(ProductChangeDto::getVersion).toList());
+        verify(listener, never()).resync();
+    }
+
+    @Test
+    void receive_WithVersionsOutOfOrder_ShouldApplyEachOnceWithoutReplaying() throws Exception {
+        // Given
+        broadcaster.receive(message("node-b", 1, ProductChangeBroadcaster.TYPE_UPDATED));
+
+        // When
+        broadcaster.receive(message("node-b", 3, ProductChangeBroadcaster.TYPE_UPDATED));
+        broadcaster.receive(message("node-b", 2, ProductChangeBroadcaster.TYPE_UPDATED));
+        broadcaster.receive(message("node-b", 3, ProductChangeBroadcaster.TYPE_HEARTBEAT));
+        broadcaster.receive(message("node-b", 2, ProductChangeBroadcaster.TYPE_UPDATED));
+
+        // Then
+        ArgumentCaptor<ProductChangeDto> applied = ArgumentCaptor.forClass(ProductChangeDto.class);
+        verify(listener, times(3)).onRemoteChange(applied.capture());
+        assertEquals(List.of(1L, 3L, 2L), applied.getAllValues().stream().map(ProductChangeDto::getVersion).toList());
+        verify(listener, never()).resync();
+    }
+
+    @Test
+    void receive_WithFirstChangeOvertakenByEarlierOne_ShouldApplyBoth() throws Exception {
+        // When
+        broadcaster.receive(message("node-b", 5, ProductChangeBroadcaster.TYPE_UPDATED));
+        broadcaster.receive(message("node-b", 4, ProductChangeBroadcaster.TYPE_UPDATED));
+        broadcaster.receive(message("node-b", 5, ProductChangeBroadcaster.TYPE_HEARTBEAT));
+
+        // Then
+        verify(listener, times(2)).onRemoteChange(any());
+        verify(listener, never()).resync();
+    }
+
+    @Test
+    void receive_WithVersionsStillMissingAtHeartbeat_ShouldReplayThemFromTransport() throws Exception {
+        // Given
+        retained.put("node-b", List.of(message("node-b", 1, ProductChangeBroadcaster.TYPE_UPDATED),
+                message("node-b", 2, ProductChangeBroadcaster.TYPE_UPDATED),
+                message("node-b", 3, ProductChangeBroadcaster.TYPE_UPDATED),
+                message("node-b", 4, ProductChangeBroadcaster.TYPE_UPDATED)));
+        broadcaster.receive(message("node-b", 1, ProductChangeBroadcaster.TYPE_UPDATED));
+        broadcaster.receive(message("node-b", 3, ProductChangeBroadcaster.TYPE_UPDATED));
+
+        // When
+        broadcaster.receive(message("node-b", 4, ProductChangeBroadcaster.TYPE_HEARTBEAT));
+
+        // Then
+        ArgumentCaptor<ProductChangeDto> applied = ArgumentCaptor.forClass(ProductChangeDto.class);
+        verify(listener, times(4)).onRemoteChange(applied.capture());
+        assertEquals(List.of(1L, 3L, 2L, 4L), applied.getAllValues().stream().map(ProductChangeDto::getVersion).toList());
+        verify(listener, never()).resync();
+    }
+
+    @Test
+    void receive_WithMissedVersionsNoLongerRetained_ShouldResyncAtMostOncePerInterval() throws Exception {
+        // Given
+        broadcaster.receive(message("node-b", 1, ProductChangeBroadcaster.TYPE_UPDATED));
+
+        // When
+        broadcaster.receive(message("node-b", 3, ProductChangeBroadcaster.TYPE_UPDATED));
+        broadcaster.receive(message("node-b", 3, ProductChangeBroadcaster.TYPE_HEARTBEAT));
+        broadcaster.receive(message("node-b", 5, ProductChangeBroadcaster.TYPE_HEARTBEAT));
+
+        // Then
+        verify(listener, times(2)).onRemoteChange(any());
+        verify(listener, times(1)).resync();
+    }
+
+    @Test
+    void reset_ShouldSeedPeersOnFirstSubscriptionAndReplayMissedChangesOnReconnect() throws Exception {
+        // Given
+        List<String> nodeB = new ArrayList<>(List.of(message("node-b", 1, ProductChangeBroadcaster.TYPE_CREATED),
+                message("node-b", 2, ProductChangeBroadcaster.TYPE_UPDATED)));
+        retained.put("node-b", nodeB);
+        broadcaster.reset();
+        nodeB.add(message("node-b", 3, ProductChangeBroadcaster.TYPE_DELETED));
+
+        // When
+        broadcaster.reset();
+
+        // Then
+        ArgumentCaptor<ProductChangeDto> applied = ArgumentCaptor.forClass(ProductChangeDto.class);
+        verify(listener).onRemoteChange(applied.capture());
+        assertEquals(3L, applied.getValue().getVersion());
+        verify(listener, times(1)).resync();
+    }
+
+    @Test
+    void receive_WhenListenerFailsToApply_ShouldReloadOnlyThatChange() throws Exception {
+        // Given
+        doThrow(new IllegalStateException("boom")).when(listener).onRemoteChange(any());
+
+        // When
+        broadcaster.receive(message("node-b", 1, ProductChangeBroadcaster.TYPE_UPDATED));
+
+        // Then
+        ArgumentCaptor<ProductChangeDto> reloaded = ArgumentCaptor.forClass(ProductChangeDto.class);
+        verify(listener).reload(reloaded.capture());
+        assertEquals(42L, reloaded.getValue().getProductKey());
+        verify(listener, never()).resync();
+    }
+
+    @Test
+    void productSaved_WhenTransportFails_ShouldFailTheWrite() throws Exception {
+        // Given
+        transportDown = true;
+
+        // When
+        assertThrows(IllegalStateException.class, () -> broadcaster.productSaved(null, product(1L, "10.00")));
+        transportDown = false;
+        broadcaster.heartbeat();
+
+        // Then
+        assertEquals(1, published.size());
+        ProductChangeDto heartbeat = objectMapper.readValue(published.get(0), ProductChangeDto.class);
+        assertEquals(ProductChangeBroadcaster.TYPE_HEARTBEAT, heartbeat.getType());
+        assertEquals(1L, heartbeat.getVersion());
+    }
+
+    @Test
+    void heartbeat_WhileWriteTransactionIsOpen_ShouldStayBelowItsVersion() throws Exception {
+        // Given
+        broadcaster.productSaved(null, product(1L, "10.00"));
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> open;
+        try {
+            broadcaster.productSaved(null, product(2L, "20.00"));
+            open = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // When
+        broadcaster.heartbeat();
+        open.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        broadcaster.heartbeat();
+
+        // Then
+        assertEquals(1L, objectMapper.readValue(published.get(2), ProductChangeDto.class).getVersion());
+        assertEquals(2L, objectMapper.readValue(published.get(3), ProductChangeDto.class).getVersion());
+    }
+
+    @Test
+    void heartbeat_ShouldForgetPeersQuietLongerThanTimeoutWhileStillReceiving() throws Exception {
+        // Given
+        ProductChangeBroadcaster quick = new ProductChangeBroadcaster(mock(CacheInvalidationTransport.class),
+                List.of(listener), objectMapper, new SimpleMeterRegistry(), 60_000, 10);
+        quick.receive(message("node-b", 1, ProductChangeBroadcaster.TYPE_UPDATED));
+        quick.heartbeat();
+        int peersBefore = quick.getPeerCount();
+
+        // When
+        Thread.sleep(20);
+        quick.receive(message(quick.getNodeId(), 0, ProductChangeBroadcaster.TYPE_HEARTBEAT));
+        quick.heartbeat();
+
+        // Then
+        assertEquals(1, peersBefore);
+        assertEquals(0, quick.getPeerCount());
+    }
+
+    private String message(String nodeId, long version, String type) throws Exception {
+        ProductChangeDto change = new ProductChangeDto();
+        change.setNodeId(nodeId);
+        change.setVersion(version);
+        change.setType(type);
+        change.setProductKey(42L);
+        return objectMapper.writeValueAsString(change);
+    }
+
+    private static Product product(Long productKey, String price) {
+        Product product = new Product(productKey, "Retailer", "Brand", "Model", "Product", new BigDecimal(price), null);
+        product.setBrandId(7);
+        product.setRetailerId(3);
+        return product;
+    }
+}
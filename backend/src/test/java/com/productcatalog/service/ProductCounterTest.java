@@ -0,0 +1,98 @@
+package com.productcatalog.service;
+
+import com.productcatalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCounterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCounter productCounter;
+
+    @BeforeEach
+    void setUp() {
+        productCounter = new ProductCounter(productRepository);
+    }
+
+    @Test
+    void refresh_WhenWriteLandsWhileCounting_ShouldCountAgain() {
+        // Given
+        when(productRepository.count())
+                .thenReturn(10L)
+                .thenAnswer(invocation -> {
+                    // An insert is recorded while this count is running
+                    productCounter.increment();
+                    return 10L;
+                })
+                .thenReturn(11L);
+        productCounter.get();
+
+        // When
+        long result = productCounter.refresh();
+
+        // Then
+        assertEquals(11L, result);
+        assertEquals(11L, productCounter.get());
+        verify(productRepository, times(3)).count();
+    }
+
+    @Test
+    void refresh_WhenAlwaysContended_ShouldKeepInMemoryCount() {
+        // Given
+        when(productRepository.count())
+                .thenReturn(10L)
+                .thenAnswer(invocation -> {
+                    productCounter.increment();
+                    return 10L;
+                });
+        productCounter.get();
+
+        // When
+        long result = productCounter.refresh();
+
+        // Then
+        assertEquals(13L, result);
+        assertEquals(13L, productCounter.get());
+    }
+
+    @Test
+    void refresh_WhenCountSeesAnInsertNotYetRecorded_ShouldNotCountItTwice() {
+        // Given
+        when(productRepository.count()).thenReturn(10L).thenReturn(11L);
+        productCounter.get();
+        // The insert's transaction has committed, so the recount below already sees its row
+        productCounter.writeStarted();
+
+        // When
+        productCounter.refresh();
+        productCounter.writeFinished(1);
+
+        // Then
+        assertEquals(11L, productCounter.get());
+    }
+
+    @Test
+    void refresh_AfterWritesFinish_ShouldStoreTheExactCount() {
+        // Given
+        when(productRepository.count()).thenReturn(10L).thenReturn(12L);
+        productCounter.get();
+        productCounter.writeStarted();
+        productCounter.writeFinished(1);
+
+        // When
+        long result = productCounter.refresh();
+
+        // Then
+        assertEquals(12L, result);
+        assertEquals(12L, productCounter.get());
+    }
+}
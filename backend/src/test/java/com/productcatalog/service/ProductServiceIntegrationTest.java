@@ -0,0 +1,103 @@
+package com.productcatalog.service;
+
+import com.productcatalog.entity.Brand;
+import com.productcatalog.entity.Product;
+import com.productcatalog.repository.BrandRepository;
+import com.productcatalog.repository.RetailerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+import static com.productcatalog.monitoring.QueryAssertions.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs ProductService against an in-memory H2 database to check what its writes commit
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productservice;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "productcatalog.cache-sync.transport=local"
+})
+class ProductServiceIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private DimensionDictionary dimensionDictionary;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private RetailerRepository retailerRepository;
+
+    @Test
+    void createProduct_WhenSaveFails_ShouldNotLeaveNewBrandOrRetailer() {
+        // Given
+        Product invalid = new Product(10L, "Orphan Retailer", "Orphan Brand", "Model", null,
+                new BigDecimal("1.00"), null);
+
+        // When
+        assertThrows(RuntimeException.class, () -> productService.createProduct(invalid));
+
+        // Then
+        assertTrue(brandRepository.findByKey("orphan brand").isEmpty());
+        assertTrue(retailerRepository.findByKey("orphan retailer").isEmpty());
+        assertTrue(dimensionDictionary.findBrandId("Orphan Brand").isEmpty());
+    }
+
+    @Test
+    void createProduct_WithNewBrand_ShouldCreateItOnceForAnyCase() {
+        // When
+        productService.createProduct(new Product(11L, "Shared Retailer", "Shared Brand", "Model", "First",
+                new BigDecimal("1.00"), null));
+        Product second = productService.createProduct(new Product(12L, "shared retailer", "SHARED BRAND", "Model",
+                "Second", new BigDecimal("2.00"), null));
+
+        // Then
+        assertEquals("Shared Brand", second.getBrand());
+        assertEquals("Shared Retailer", second.getRetailer());
+        assertEquals(2, productService.getProductsByBrand("shared brand").size());
+    }
+
+    @Test
+    void insertIfAbsent_OnHibernateManagedSchema_ShouldKeepOneEntryPerNormalizedName() {
+        // When
+        int first = brandRepository.insertIfAbsent("Acme", Brand.keyOf("Acme"));
+        int second = brandRepository.insertIfAbsent("ACME", Brand.keyOf(" ACME "));
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals("Acme", brandRepository.findByKey("acme").orElseThrow().getName());
+    }
+
+    @Test
+    void updatePrices_ShouldLockReadAndBatchWriteWithoutLoadingProducts() {
+        // Given
+        productService.createProduct(new Product(21L, "Price Retailer", "Price Brand", "Model", "Priced",
+                new BigDecimal("10.00"), "Long description"));
+
+        // When
+        Set<Long> updated = assertStatementCount(2,
+                () -> productService.updatePrices(Map.of(21L, new BigDecimal("12.50"), 22L, new BigDecimal("3.00"))));
+
+        // Then
+        assertEquals(Set.of(21L), updated);
+        Product reloaded = productService.getProductById(21L).orElseThrow();
+        assertEquals(0, new BigDecimal("12.50").compareTo(reloaded.getPrice()));
+        assertEquals("Long description", reloaded.getProductDescription());
+    }
+}
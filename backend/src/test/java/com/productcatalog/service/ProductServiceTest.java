@@ -1,23 +1,38 @@
 package com.productcatalog.service;
 
 import com.productcatalog.dto.BrandSummaryDto;
+import com.productcatalog.dto.PriceStatisticsDto;
+import com.productcatalog.entity.Brand;
 import com.productcatalog.entity.Product;
+import com.productcatalog.entity.Retailer;
+import com.productcatalog.repository.BrandRepository;
 import com.productcatalog.repository.ProductRepository;
+import com.productcatalog.repository.RetailerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,13 +41,33 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private RetailerRepository retailerRepository;
+
+    @Mock
+    private ProductChangeBroadcaster changeBroadcaster;
+
     private ProductService productService;
 
     private Product testProduct;
 
     @BeforeEach
     void setUp() {
+        lenient().when(brandRepository.findAll())
+                .thenReturn(Arrays.asList(brand(1, "Brand A"), brand(2, "Brand B"), brand(3, "Test Brand")));
+        lenient().when(retailerRepository.findAll())
+                .thenReturn(Arrays.asList(retailer(1, "Retailer 1"), retailer(2, "Retailer 2"), retailer(3, "Test Retailer")));
+        DimensionDictionary dimensionDictionary = new DimensionDictionary(brandRepository, retailerRepository);
+        productService = new ProductService(productRepository,
+                new RequestCoalescer(new SimpleMeterRegistry(), 2000),
+                new ProductCounter(productRepository),
+                new PriceAnalyticsService(productRepository, dimensionDictionary),
+                dimensionDictionary,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                changeBroadcaster);
         testProduct = new Product(
                 1L,
                 "Test Retailer",
@@ -86,22 +121,41 @@ class ProductServiceTest {
     }
 
     @Test
-    void createProduct_ShouldSaveAndReturnProduct() {
+    void createProduct_ShouldInsertAndReturnProduct() {
         // Given
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        when(productRepository.insert(any(Product.class))).thenReturn(testProduct);
 
         // When
         Product result = productService.createProduct(testProduct);
 
         // Then
         assertEquals(testProduct, result);
-        verify(productRepository).save(testProduct);
+        verify(productRepository).insert(testProduct);
+        verify(productRepository, never()).save(any(Product.class));
+        verify(changeBroadcaster).productSaved(null, testProduct);
+    }
+
+    @Test
+    void createProduct_WithExistingKey_ShouldOverwriteWithoutCounting() {
+        // Given
+        when(productRepository.count()).thenReturn(10L);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        productService.getTotalProductCount();
+
+        // When
+        productService.createProduct(testProduct);
+
+        // Then
+        assertEquals(10L, productService.getTotalProductCount());
+        verify(productRepository, never()).insert(any(Product.class));
+        verify(changeBroadcaster).productSaved(any(Product.class), eq(testProduct));
     }
 
     @Test
     void updateProduct_WhenProductExists_ShouldUpdateAndReturnProduct() {
         // Given
-        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // When
@@ -109,56 +163,58 @@ class ProductServiceTest {
 
         // Then
         assertEquals(testProduct, result);
-        verify(productRepository).existsById(1L);
+        verify(productRepository).findByIdForUpdate(1L);
         verify(productRepository).save(testProduct);
     }
 
     @Test
     void updateProduct_WhenProductDoesNotExist_ShouldThrowException() {
         // Given
-        when(productRepository.existsById(1L)).thenReturn(false);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> productService.updateProduct(testProduct));
         
         assertEquals("Product not found with id: 1", exception.getMessage());
-        verify(productRepository).existsById(1L);
+        verify(productRepository).findByIdForUpdate(1L);
         verify(productRepository, never()).save(any());
     }
 
     @Test
     void deleteProduct_WhenProductExists_ShouldDeleteProduct() {
         // Given
-        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testProduct));
 
         // When
         productService.deleteProduct(1L);
 
         // Then
-        verify(productRepository).existsById(1L);
+        verify(productRepository).findByIdForUpdate(1L);
         verify(productRepository).deleteById(1L);
+        verify(changeBroadcaster).productDeleted(any(Product.class));
     }
 
     @Test
     void deleteProduct_WhenProductDoesNotExist_ShouldThrowException() {
         // Given
-        when(productRepository.existsById(1L)).thenReturn(false);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> productService.deleteProduct(1L));
         
         assertEquals("Product not found with id: 1", exception.getMessage());
-        verify(productRepository).existsById(1L);
+        verify(productRepository).findByIdForUpdate(1L);
         verify(productRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(changeBroadcaster);
     }
 
     @Test
     void getBrandSummary_ShouldReturnBrandSummaryList() {
         // Given
-        Object[] brandData1 = {"Brand A", 5L};
-        Object[] brandData2 = {"Brand B", 3L};
+        Object[] brandData1 = {1, 5L};
+        Object[] brandData2 = {2, 3L};
         List<Object[]> mockResults = Arrays.asList(brandData1, brandData2);
         when(productRepository.getBrandSummary()).thenReturn(mockResults);
 
@@ -199,4 +255,210 @@ class ProductServiceTest {
         assertEquals(10L, result);
         verify(productRepository).count();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTotalProductCount_ShouldTrackWritesWithoutRecounting() {
+        // Given
+        when(productRepository.count()).thenReturn(10L);
+        when(productRepository.findByIdForUpdate(1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(testProduct))
+                .thenReturn(Optional.of(testProduct));
+        when(productRepository.insert(any(Product.class))).thenReturn(testProduct);
+        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+
+        // When
+        productService.getTotalProductCount();
+        productService.createProduct(testProduct);
+        productService.createProduct(testProduct);
+        productService.deleteProduct(1L);
+        long result = productService.getTotalProductCount();
+
+        // Then
+        assertEquals(10L, result);
+        verify(productRepository, times(1)).count();
+    }
+
+    @Test
+    void getApproximateProductCount_ShouldReturnPlannerEstimate() {
+        // Given
+        when(productRepository.estimateRowCount()).thenReturn(1_000_000L);
+
+        // When
+        long result = productService.getApproximateProductCount();
+
+        // Then
+        assertEquals(1_000_000L, result);
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void getApproximateProductCount_WhenNoEstimate_ShouldFallBackToExactCount() {
+        // Given
+        when(productRepository.estimateRowCount()).thenReturn(-1L);
+        when(productRepository.count()).thenReturn(10L);
+
+        // When
+        long result = productService.getApproximateProductCount();
+
+        // Then
+        assertEquals(10L, result);
+        verify(productRepository).count();
+    }
+
+    @Test
+    void getPriceStatistics_ShouldBuildFromCatalogAndTrackUpdates() {
+        // Given
+        List<Object[]> pricePoints = Arrays.asList(
+                new Object[]{1L, 1, 1, new BigDecimal("10.00")},
+                new Object[]{2L, 1, 2, new BigDecimal("30.00")},
+                new Object[]{3L, 2, 1, new BigDecimal("99.99")});
+        List<Object[]> keyRange = new ArrayList<>();
+        keyRange.add(new Object[]{1L, 3L});
+        when(productRepository.getProductKeyRange()).thenReturn(keyRange);
+        when(productRepository.findPricePointsAfter(anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> pricePoints.stream()
+                        .filter(row -> (Long) row[0] > (Long) invocation.getArgument(0)
+                                && (Long) row[0] <= (Long) invocation.getArgument(1))
+                        .collect(Collectors.toList()));
+        Product existing = new Product(1L, null, null, "Model", "Product",
+                new BigDecimal("30.00"), "Description");
+        existing.setBrandId(1);
+        existing.setRetailerId(2);
+        Product updated = new Product(1L, "Retailer 2", "Brand A", "Model", "Product",
+                new BigDecimal("20.00"), "Description");
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existing));
+        when(productRepository.save(any(Product.class))).thenReturn(updated);
+
+        // When
+        List<PriceStatisticsDto> before = productService.getPriceStatistics("brand", 2);
+        productService.updateProduct(updated);
+        List<PriceStatisticsDto> after = productService.getPriceStatistics("brand", 2);
+
+        // Then
+        assertEquals(2, before.size());
+        assertEquals("Brand A", before.get(0).getBrand());
+        assertEquals(2L, before.get(0).getCount());
+        assertEquals(new BigDecimal("20.00"), before.get(0).getAvgPrice());
+        assertEquals(2, before.get(0).getHistogram().size());
+        assertEquals(new BigDecimal("15.00"), after.get(0).getAvgPrice());
+        assertEquals(2L, after.get(0).getCount());
+        verify(productRepository, times(1)).getProductKeyRange();
+    }
+
+    @Test
+    void getPriceStatistics_WithUnknownGrouping_ShouldThrowException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> productService.getPriceStatistics("model", 10));
+    }
+
+    @Test
+    void getProductsByBrand_ShouldFilterByBrandIdIgnoringCase() {
+        // Given
+        testProduct.setBrandId(3);
+        testProduct.setBrand(null);
+        when(productRepository.findByBrandId(3)).thenReturn(Arrays.asList(testProduct));
+
+        // When
+        List<Product> result = productService.getProductsByBrand("test brand");
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Test Brand", result.get(0).getBrand());
+        verify(productRepository).findByBrandId(3);
+    }
+
+    @Test
+    void getProductsByBrand_WithUnknownBrand_ShouldNotQueryProducts() {
+        // When
+        List<Product> result = productService.getProductsByBrand("Unknown Brand");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).findByBrandId(any());
+    }
+
+    @Test
+    void getProductsByBrand_WithNullBrand_ShouldReturnEmptyList() {
+        // When
+        List<Product> result = productService.getProductsByBrand(null);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).findByBrandId(any());
+    }
+
+    @Test
+    void createProduct_WithNewBrand_ShouldCreateDimensionEntry() {
+        // Given
+        testProduct.setBrand("New Brand");
+        when(brandRepository.findByKey("new brand"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(brand(4, "New Brand")));
+        when(productRepository.insert(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Product result = productService.createProduct(testProduct);
+
+        // Then
+        assertEquals(4, result.getBrandId());
+        assertEquals(3, result.getRetailerId());
+        assertEquals("New Brand", result.getBrand());
+        verify(brandRepository).insertIfAbsent("New Brand", "new brand");
+        verify(retailerRepository, never()).insertIfAbsent(any(), any());
+    }
+
+    @Test
+    void updatePrices_ShouldWriteOnlyExistingProductsAndReportFoundKeys() {
+        // Given
+        when(productRepository.findPricePointsForUpdate(any()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 3, 3, new BigDecimal("99.99")}));
+
+        // When
+        Set<Long> result = productService.updatePrices(Map.of(1L, new BigDecimal("79.99"), 2L, new BigDecimal("5.00")));
+
+        // Then
+        assertEquals(Set.of(1L), result);
+        verify(productRepository).updatePrices(Map.of(1L, new BigDecimal("79.99")));
+        verify(productRepository, never()).findAllById(any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> updated = ArgumentCaptor.forClass(List.class);
+        verify(changeBroadcaster).productsUpdated(any(), updated.capture());
+        assertEquals(3, updated.getValue().get(0).getBrandId());
+        assertEquals(new BigDecimal("79.99"), updated.getValue().get(0).getPrice());
+    }
+
+    @Test
+    void updatePrices_WithManyKeys_ShouldLockInAscendingChunks() {
+        // Given
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (long key = 2500; key >= 1; key--) {
+            prices.put(key, BigDecimal.ONE);
+        }
+        when(productRepository.findPricePointsForUpdate(any())).thenReturn(List.of());
+
+        // When
+        productService.updatePrices(prices);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(productRepository, times(3)).findPricePointsForUpdate(chunks.capture());
+        assertEquals(List.of(1000, 1000, 500), chunks.getAllValues().stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(1L, chunks.getAllValues().get(0).get(0));
+        assertEquals(2001L, chunks.getAllValues().get(2).get(0));
+    }
+
+    private static Brand brand(int id, String name) {
+        Brand brand = new Brand(name);
+        brand.setId(id);
+        return brand;
+    }
+
+    private static Retailer retailer(int id, String name) {
+        Retailer retailer = new Retailer(name);
+        retailer.setId(id);
+        return retailer;
+    }
+}
@@ -0,0 +1,213 @@
+package com.productcatalog.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer requestCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestCoalescer = new RequestCoalescer(meterRegistry, 2000);
+    }
+
+    @Test
+    void execute_WithConcurrentIdenticalKeys_ShouldShareOneCall() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("product:1", () -> {
+                        loads.incrementAndGet();
+                        leaderStarted.countDown();
+                        await(release);
+                        return "result";
+                    }), executor);
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            // When
+            CompletableFuture<String> follower1 = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("product:1", () -> "follower-" + loads.incrementAndGet()), executor);
+            CompletableFuture<String> follower2 = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("product:1", () -> "follower-" + loads.incrementAndGet()), executor);
+            waitForFollowers(2);
+            release.countDown();
+
+            // Then
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("result", follower1.get(5, TimeUnit.SECONDS));
+            assertEquals("result", follower2.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+            assertEquals(2.0, meterRegistry.get("productcatalog.coalescing.requests")
+                    .tag("outcome", "coalesced").counter().count());
+            assertEquals(0, requestCoalescer.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_AfterCallCompletes_ShouldQueryAgain() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        requestCoalescer.execute("brand-summary", loads::incrementAndGet);
+        requestCoalescer.execute("brand-summary", loads::incrementAndGet);
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(2.0, meterRegistry.get("productcatalog.coalescing.requests")
+                .tag("outcome", "leader").counter().count());
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldPropagateAndReleaseKey() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                requestCoalescer.execute("product:1", () -> {
+                    throw new RuntimeException("boom");
+                }));
+
+        assertEquals("boom", exception.getMessage());
+        assertEquals(0, requestCoalescer.getInFlightCount());
+    }
+
+    @Test
+    void execute_WhenLeaderIsTooSlow_ShouldQueryDirectlyAfterTimeout() throws Exception {
+        // Given
+        RequestCoalescer shortWait = new RequestCoalescer(meterRegistry, 50);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                    shortWait.execute("product:1", () -> {
+                        leaderStarted.countDown();
+                        await(release);
+                        return "leader";
+                    }), executor);
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            // When
+            String follower = shortWait.execute("product:1", () -> "direct");
+            release.countDown();
+
+            // Then
+            assertEquals("direct", follower);
+            assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+            assertEquals(1.0, meterRegistry.get("productcatalog.coalescing.requests")
+                    .tag("outcome", "timeout").counter().count());
+            assertEquals(0.0, meterRegistry.get("productcatalog.coalescing.requests")
+                    .tag("outcome", "coalesced").counter().count());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void forgetAll_ShouldMakeLaterCallersStartAFreshCall() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("brand-summary", () -> {
+                        int load = loads.incrementAndGet();
+                        leaderStarted.countDown();
+                        await(release);
+                        return load;
+                    }), executor);
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            // When
+            requestCoalescer.forgetAll();
+            int afterWrite = requestCoalescer.execute("brand-summary", loads::incrementAndGet);
+            release.countDown();
+
+            // Then
+            assertEquals(2, afterWrite);
+            assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+            assertEquals(0.0, meterRegistry.get("productcatalog.coalescing.requests")
+                    .tag("outcome", "coalesced").counter().count());
+            assertEquals(0, requestCoalescer.getInFlightCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WithShareFunction_ShouldGiveFollowersTheirOwnCopy() throws Exception {
+        // Given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("brand:a", () -> {
+                        leaderStarted.countDown();
+                        await(release);
+                        return new ArrayList<>(List.of("product"));
+                    }, ArrayList::new), executor);
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            // When
+            CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("brand:a", () -> new ArrayList<>(List.of("direct")), ArrayList::new),
+                    executor);
+            waitForFollowers(1);
+            release.countDown();
+
+            // Then
+            List<String> leaderResult = leader.get(5, TimeUnit.SECONDS);
+            List<String> followerResult = follower.get(5, TimeUnit.SECONDS);
+            assertEquals(leaderResult, followerResult);
+            assertNotSame(leaderResult, followerResult);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private void waitForFollowers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("productcatalog.coalescing.waiting").gauge().value() < expected) {
+            assertTrue(System.nanoTime() < deadline, "followers never joined the in-flight call");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,15 @@
--- Insert sample product data
-INSERT INTO product (product_key, retailer, brand, model, product_name, product_price, product_description) VALUES
+-- Stage sample product data with retailer and brand names
+CREATE TEMPORARY TABLE product_import (
+    product_key             bigint NOT NULL,
+    retailer                varchar(64),
+    brand                   varchar(64),
+    model                   varchar(32),
+    product_name            varchar(128) NOT NULL,
+    product_price           numeric(32,2) NOT NULL,
+    product_description     text
+);
+
+INSERT INTO product_import (product_key, retailer, brand, model, product_name, product_price, product_description) VALUES
 (12952635, 'XYZ Retail', 'Bosch', 'WTZSB30UC', 'Dryer Wall Mounting Bracket (Silver)', 29.99, '1: Bracket Style | 2: Stainless Steel | 3: Hardware Included'),
 (3665295, 'XYZ Retail', 'GIANT ART', 'WAG122733A2', '54-in H x 54-in W Abstract Print on Canvas', 459.00, 'Giant artworks creates stunning focal points. It gives a wow factor to any room décor. All you need is a large bold piece of art to give an instant stylish upgrade.'),
 (12952636, 'XYZ Retail', 'Maocao Hoom', 'BH60071', '63.5-in x 41-in x 98-in Steel Log Rack', 382.77, 'Our versatile 2-in-1 garden shed is designed to bring organization to your outdoor space. With its ample storage capacity, this shed is perfect for keeping tools, firewood, garden furniture, and equipment neatly organized and protected.'),
@@ -20,3 +30,22 @@ INSERT INTO product (product_key, retailer, brand, model, product_name, product_
 (3665323, 'XYZ Retail', 'GIANT ART', 'UHAX-160A2', '"Shapes II V5" Fine Art Giant Canvas Print', 609.00, 'Bring some larger-than-life style into your space with this Giant Art Canvas Print. Rendered on exquisite, eco-friendly materials with fade resistant archival inks.'),
 (12952644, 'XYZ Retail', 'Savoy House Essentials', '8-6836-4-322', 'Melrose 33.5-in 4-Light Brushed Brass LED Vintage Vanity Light', 219.99, 'From Savoy House, the Melrose 4-light bath vanity bar stylishly updates classic Americana design for today''s interiors. It features modern lines, white opal glass shades and a warm brass finish.'),
 (3665329, 'XYZ Retail', 'GIANT ART', 'UIOR-204A4', '"Sweet Solitude" Fine Art Giant Canvas Print', 849.00, 'Bring some larger-than-life style into your space with this giant art canvas print. Rendered on exquisite, eco-friendly materials with fade resistant archival inks.');
+
+-- Insert retailers and brands, then products referencing them by id
+INSERT INTO retailer (retailer_name, retailer_key)
+SELECT min(trim(retailer)), lower(trim(retailer)) FROM product_import
+WHERE retailer IS NOT NULL AND trim(retailer) <> ''
+GROUP BY lower(trim(retailer));
+
+INSERT INTO brand (brand_name, brand_key)
+SELECT min(trim(brand)), lower(trim(brand)) FROM product_import
+WHERE brand IS NOT NULL AND trim(brand) <> ''
+GROUP BY lower(trim(brand));
+
+INSERT INTO product (product_key, retailer_id, brand_id, model, product_name, product_price, product_description)
+SELECT i.product_key, r.retailer_id, b.brand_id, i.model, i.product_name, i.product_price, i.product_description
+FROM product_import i
+LEFT JOIN retailer r ON r.retailer_key = lower(trim(i.retailer))
+LEFT JOIN brand b ON b.brand_key = lower(trim(i.brand));
+
+DROP TABLE product_import;
@@ -0,0 +1,56 @@
+-- Move product.retailer and product.brand into the retailer and brand dimension tables.
+-- For databases created from the schema.sql that had free-text retailer/brand columns:
+--   psql -h localhost -U dbuser -d productcatalog -f migrations/001-normalize-brand-retailer.sql
+-- Names differing only by case or surrounding whitespace are merged into one entry.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS retailer (
+    retailer_id             serial NOT NULL,
+    retailer_name           varchar(64) NOT NULL,
+    PRIMARY KEY (retailer_id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS retailer_name_idx ON retailer (lower(retailer_name));
+
+CREATE TABLE IF NOT EXISTS brand (
+    brand_id                serial NOT NULL,
+    brand_name              varchar(64) NOT NULL,
+    PRIMARY KEY (brand_id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS brand_name_idx ON brand (lower(brand_name));
+
+INSERT INTO retailer (retailer_name)
+SELECT min(trim(retailer)) FROM product
+WHERE retailer IS NOT NULL AND trim(retailer) <> ''
+GROUP BY lower(trim(retailer))
+ON CONFLICT DO NOTHING;
+
+INSERT INTO brand (brand_name)
+SELECT min(trim(brand)) FROM product
+WHERE brand IS NOT NULL AND trim(brand) <> ''
+GROUP BY lower(trim(brand))
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS retailer_id integer REFERENCES retailer (retailer_id);
+ALTER TABLE product ADD COLUMN IF NOT EXISTS brand_id integer REFERENCES brand (brand_id);
+
+UPDATE product p SET retailer_id = r.retailer_id
+FROM retailer r
+WHERE lower(r.retailer_name) = lower(trim(p.retailer));
+
+UPDATE product p SET brand_id = b.brand_id
+FROM brand b
+WHERE lower(b.brand_name) = lower(trim(p.brand));
+
+CREATE INDEX IF NOT EXISTS product_brand_id_idx ON product (brand_id);
+
+ALTER TABLE product DROP COLUMN retailer;
+ALTER TABLE product DROP COLUMN brand;
+
+COMMIT;
+
+ANALYZE retailer;
+ANALYZE brand;
+ANALYZE product;
@@ -0,0 +1,21 @@
+-- Give retailer and brand a normalized key column carrying their uniqueness, replacing the
+-- lower(name) indexes. The backend matches names by this key and inserts new entries with
+-- ON CONFLICT DO NOTHING against it; Hibernate-managed schemas get the same constraint
+-- from the entities. Run after 001-normalize-brand-retailer.sql:
+--   psql -h localhost -U dbuser -d productcatalog -f migrations/002-brand-retailer-keys.sql
+
+BEGIN;
+
+ALTER TABLE retailer ADD COLUMN IF NOT EXISTS retailer_key varchar(128);
+UPDATE retailer SET retailer_key = lower(trim(retailer_name)) WHERE retailer_key IS NULL;
+ALTER TABLE retailer ALTER COLUMN retailer_key SET NOT NULL;
+ALTER TABLE retailer ADD CONSTRAINT retailer_key_uk UNIQUE (retailer_key);
+DROP INDEX IF EXISTS retailer_name_idx;
+
+ALTER TABLE brand ADD COLUMN IF NOT EXISTS brand_key varchar(128);
+UPDATE brand SET brand_key = lower(trim(brand_name)) WHERE brand_key IS NULL;
+ALTER TABLE brand ALTER COLUMN brand_key SET NOT NULL;
+ALTER TABLE brand ADD CONSTRAINT brand_key_uk UNIQUE (brand_key);
+DROP INDEX IF EXISTS brand_name_idx;
+
+COMMIT;
@@ -1,10 +1,47 @@
+CREATE TABLE IF NOT EXISTS retailer (
+    retailer_id             serial NOT NULL,
+    retailer_name           varchar(64) NOT NULL,
+    retailer_key            varchar(128) NOT NULL,
+    PRIMARY KEY (retailer_id),
+    CONSTRAINT retailer_key_uk UNIQUE (retailer_key)
+);
+
+CREATE TABLE IF NOT EXISTS brand (
+    brand_id                serial NOT NULL,
+    brand_name              varchar(64) NOT NULL,
+    brand_key               varchar(128) NOT NULL,
+    PRIMARY KEY (brand_id),
+    CONSTRAINT brand_key_uk UNIQUE (brand_key)
+);
+
 CREATE TABLE IF NOT EXISTS product (
     product_key             bigint NOT NULL,
-    retailer                varchar(64),
-    brand                   varchar(64),
+    retailer_id             integer REFERENCES retailer (retailer_id),
+    brand_id                integer REFERENCES brand (brand_id),
     model                   varchar(32),
     product_name            varchar(128) NOT NULL,
     product_price           numeric(32,2) NOT NULL DEFAULT 0.00,
     product_description     text,
     PRIMARY KEY (product_key)
 );
+
+CREATE INDEX IF NOT EXISTS product_brand_id_idx ON product (brand_id);
+
+CREATE TABLE IF NOT EXISTS catalog_job_checkpoint (
+    job_name                varchar(64) NOT NULL,
+    last_product_key        bigint,
+    rows_processed          bigint NOT NULL DEFAULT 0,
+    completed               boolean NOT NULL DEFAULT false,
+    updated                 timestamp with time zone NOT NULL,
+    PRIMARY KEY (job_name)
+);
+
+-- Product changes broadcast between backend instances, kept briefly so instances can replay
+-- the ones they missed (see PostgresInvalidationTransport)
+CREATE TABLE IF NOT EXISTS product_change_log (
+    node_id                 varchar(36) NOT NULL,
+    version                 bigint NOT NULL,
+    message                 text NOT NULL,
+    created                 timestamp with time zone NOT NULL DEFAULT now(),
+    PRIMARY KEY (node_id, version)
+);